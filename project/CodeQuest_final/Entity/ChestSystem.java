@@ -41,6 +41,19 @@ public class ChestSystem implements Subject {
         notifyObservers();
     }
 
+    // Start a level with this many closed chests
+    public void setTotalChests(int chests) {
+        maxChests = chests;
+        remainingChests = chests;
+        notifyObservers();
+    }
+
+    // Set the number of closed chests (restoring a saved world state)
+    public void setRemainingChests(int chests) {
+        remainingChests = Math.max(0, Math.min(chests, maxChests));
+        notifyObservers();
+    }
+
 
 
     // Get current number of remaining chests
@@ -0,0 +1,32 @@
+package CodeQuest.Entity;
+
+// Movement directions with their per-step deltas and sprite row
+// New modes (diagonals, running) only need a new constant here instead of new switch cases
+public enum Direction {
+    UP(0, -1, SpriteSet.ROW_UP),
+    DOWN(0, 1, SpriteSet.ROW_DOWN),
+    LEFT(-1, 0, SpriteSet.ROW_LEFT),
+    RIGHT(1, 0, SpriteSet.ROW_RIGHT);
+
+    public final int dx; // -1, 0 or 1 along X
+    public final int dy; // -1, 0 or 1 along Y
+    public final int spriteRow; // Row in the SpriteSet used while moving this way
+
+    private static final Direction[] VALUES = values(); // Cached, values() copies the array each call
+
+    Direction(int dx, int dy, int spriteRow) {
+        this.dx = dx;
+        this.dy = dy;
+        this.spriteRow = spriteRow;
+    }
+
+    // Look up a direction from a stored byte code (its ordinal)
+    public static Direction fromCode(int code) {
+        return VALUES[code];
+    }
+
+    // Get the direction code to store in primitive arrays
+    public byte code() {
+        return (byte) ordinal();
+    }
+}
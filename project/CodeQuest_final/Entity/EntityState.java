@@ -0,0 +1,8 @@
+package CodeQuest.Entity;
+
+// Behaviour states for entities - decides how they move and which sprite row is drawn
+public enum EntityState {
+    IDLE, // Standing still, idle animation
+    WALKING, // Free movement in the facing direction
+    COMMAND_MOVE // Moving towards a target set by a text command
+}
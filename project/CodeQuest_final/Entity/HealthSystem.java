@@ -14,7 +14,7 @@ public class HealthSystem implements Subject {
 
     private List<Observer> observers = new ArrayList<>();
 
-    private int maxHealth = 5; // Maximum health (5 hearts)
+    public static final int MAX_HEALTH = 5; // Maximum health (5 hearts)
     private int currentHealth = 5; // Current health remaining
 
     private BufferedImage heartFull; // Full heart sprite
@@ -47,11 +47,18 @@ public class HealthSystem implements Subject {
 
     // Restore health to maximum and revive player
     public void resetHealth() {
-        currentHealth = maxHealth;
+        currentHealth = MAX_HEALTH;
         isDead = false;
         notifyObservers();
     }
 
+    // Set health (restoring a saved world state), 0 means dead
+    public void setHealth(int health) {
+        currentHealth = Math.max(0, Math.min(health, MAX_HEALTH));
+        isDead = currentHealth == 0;
+        notifyObservers();
+    }
+
 
 
     // Helper method to draw a styled button (menu style) with centered text
@@ -178,7 +185,7 @@ public class HealthSystem implements Subject {
     }
 
     public int getMaxHealth() {
-        return maxHealth;
+        return MAX_HEALTH;
     }
 
     // Check if player is dead
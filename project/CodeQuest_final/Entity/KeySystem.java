@@ -41,6 +41,12 @@ public class KeySystem implements Subject {
         notifyObservers();
     }
 
+    // Set the key count (restoring a saved world state)
+    public void setKeys(int keys) {
+        currentKeys = Math.max(0, Math.min(keys, maxKeys));
+        notifyObservers();
+    }
+
 
 
     // Get current number of keys collected
@@ -1,21 +1,39 @@
 package CodeQuest.Entity;
 
 import java.awt.*;
-
-// Displays NPC dialogue messages in a message bar
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.awt.image.BufferedImage;
+import java.text.AttributedString;
+import java.util.ArrayDeque;
+
+// Displays NPC dialogue and print() output in a message bar
 public class MessageSystem {
 
-    private String currentMessage = ""; // Current message to display
-    private boolean showMessage = false; // Whether to show the message bar
-    private boolean isPrintMessage = false; // Whether message is from print() command
-    private long printMessageStartTime = 0; // When print message started
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.BOLD, 18); // Message text font
+    private static final BasicStroke BORDER_STROKE = new BasicStroke(3); // Bar border
+    private static final int MAX_QUEUED_PRINTS = 32; // Oldest prints are dropped beyond this
+
+    // Game thread state
+    private String npcMessage = null; // Dialogue of the nearby NPC, null if none
+    private String printMessage = null; // print() output on screen, null if none
+    private long printMessageStartTime = 0; // When the current print message started
     private long printMessageDuration = 2000; // Duration to show print messages (2 seconds)
+    private long queuedPrintDuration = 1000; // Shorter duration while more prints are waiting
+    private final ArrayDeque<String> queuedPrints = new ArrayDeque<>(); // print() output waiting its turn
 
     private int screenWidth; // Screen width for centering
     private int screenHeight; // Screen height for positioning
     private int barHeight = 80; // Height of message bar
     private int padding = 20; // Padding inside bar
 
+    // Renderer state - the bar is drawn once per message into an image and reused while it stays on screen
+    private String cachedMessage; // Message the cached bar shows
+    private double cachedScale; // Device pixels per screen pixel the bar was drawn for
+    private BufferedImage cachedBar; // Background, border and wrapped text
+
     // Constructor
     public MessageSystem(int screenWidth, int screenHeight) {
         this.screenWidth = screenWidth;
@@ -24,86 +42,125 @@ public class MessageSystem {
 
     // Set and show a new message (for NPCs)
     public void showMessage(String message) {
-        this.currentMessage = message;
-        this.showMessage = true;
-        this.isPrintMessage = false;
+        this.npcMessage = message;
     }
 
-    // Set and show a print() command message with duration
+    // Queue a print() command message - shown for a limited time after earlier prints
     public void showPrintMessage(String message) {
-        this.currentMessage = message;
-        this.showMessage = true;
-        this.isPrintMessage = true;
-        this.printMessageStartTime = System.currentTimeMillis();
+        if (printMessage == null) {
+            startPrintMessage(message);
+            return;
+        }
+        if (queuedPrints.size() == MAX_QUEUED_PRINTS) {
+            queuedPrints.poll(); // Keep the newest output
+        }
+        queuedPrints.offer(message);
     }
 
     // Hide the message bar (only hides NPC messages, not print messages)
     public void hideMessage() {
-        if (!isPrintMessage) {
-            this.showMessage = false;
-            this.currentMessage = "";
-        }
+        this.npcMessage = null;
+    }
+
+    // Remove all print messages, shown or queued
+    public void clearPrintMessages() {
+        printMessage = null;
+        queuedPrints.clear();
     }
 
     // Update message state (call this in game loop)
     public void update() {
-        // Auto-hide print messages after duration
-        if (isPrintMessage && showMessage) {
-            long currentTime = System.currentTimeMillis();
-            if (currentTime - printMessageStartTime >= printMessageDuration) {
-                this.showMessage = false;
-                this.currentMessage = "";
-                this.isPrintMessage = false;
+        // Move on to the next print message after its duration
+        if (printMessage != null) {
+            long duration = queuedPrints.isEmpty() ? printMessageDuration : queuedPrintDuration;
+            if (System.currentTimeMillis() - printMessageStartTime >= duration) {
+                String next = queuedPrints.poll();
+                if (next != null) {
+                    startPrintMessage(next);
+                } else {
+                    printMessage = null;
+                }
             }
         }
     }
 
+    private void startPrintMessage(String message) {
+        printMessage = message;
+        printMessageStartTime = System.currentTimeMillis();
+    }
+
+    // Get the message that should be on screen, or null if the bar is hidden
+    // print() output takes priority over NPC dialogue
+    public String getVisibleMessage() {
+        String message = printMessage != null ? printMessage : npcMessage;
+        return (message != null && !message.isEmpty()) ? message : null;
+    }
+
     // Draw the message bar at the bottom of the screen
-    public void draw(Graphics2D g2) {
-        if (showMessage && !currentMessage.isEmpty()) {
-            // Calculate bar position (bottom of screen)
-            int barY = screenHeight - barHeight - 10;
-            int barX = 10;
-            int barWidth = screenWidth - 20;
+    // The text comes from the published frame snapshot, since this runs on the paint thread
+    public void draw(Graphics2D g2, String currentMessage) {
+        if (currentMessage == null) {
+            return;
+        }
+        // Calculate bar position (bottom of screen)
+        int barY = screenHeight - barHeight - 10;
+        int barX = 10;
+        int barWidth = screenWidth - 20;
+
+        // Lay out and draw the bar again only when the message or the view scale changes
+        double scale = g2.getTransform().getScaleX();
+        if (cachedBar == null || scale != cachedScale || !currentMessage.equals(cachedMessage)) {
+            cachedBar = renderBar(currentMessage, barWidth, scale);
+            cachedMessage = currentMessage;
+            cachedScale = scale;
+        }
+
+        // The border stroke extends past the bar rectangle, so the image has a small margin
+        int margin = (int) Math.ceil(BORDER_STROKE.getLineWidth());
+        g2.drawImage(cachedBar, barX - margin, barY - margin, barWidth + margin * 2, barHeight + margin * 2, null);
+    }
+
+    // Draw background, border and word-wrapped text for one message into a translucent image
+    private BufferedImage renderBar(String message, int barWidth, double scale) {
+        int margin = (int) Math.ceil(BORDER_STROKE.getLineWidth());
+        BufferedImage image = new BufferedImage(
+                Math.max(1, (int) Math.ceil((barWidth + margin * 2) * scale)),
+                Math.max(1, (int) Math.ceil((barHeight + margin * 2) * scale)),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        try {
+            g2.scale(scale, scale);
+            g2.translate(margin, margin); // Bar starts at (0, 0)
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 
             // Draw semi-transparent background
             g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.8f));
-            g2.setColor(new Color(0, 0, 0)); // Black background
-            g2.fillRoundRect(barX, barY, barWidth, barHeight, 15, 15); // Rounded corners
+            g2.setColor(Color.BLACK); // Black background
+            g2.fillRoundRect(0, 0, barWidth, barHeight, 15, 15); // Rounded corners
 
             // Draw border
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
-            g2.setColor(new Color(255, 255, 255)); // White border
-            g2.setStroke(new BasicStroke(3));
-            g2.drawRoundRect(barX, barY, barWidth, barHeight, 15, 15);
+            g2.setComposite(AlphaComposite.SrcOver);
+            g2.setColor(Color.WHITE); // White border
+            g2.setStroke(BORDER_STROKE);
+            g2.drawRoundRect(0, 0, barWidth, barHeight, 15, 15);
 
-            // Draw message text
-            g2.setFont(new Font("Arial", Font.BOLD, 18));
+            // Draw message text, word wrapped to the bar width
             g2.setColor(Color.WHITE);
-
-            // Word wrap if message is too long
-            FontMetrics fm = g2.getFontMetrics();
-            String[] words = currentMessage.split(" ");
-            StringBuilder line = new StringBuilder();
-            int y = barY + padding + fm.getAscent();
-            int maxWidth = barWidth - (padding * 2);
-
-            for (String word : words) {
-                String testLine = line + word + " ";
-                if (fm.stringWidth(testLine) > maxWidth && line.length() > 0) {
-                    // Draw current line and start new one
-                    g2.drawString(line.toString().trim(), barX + padding, y);
-                    y += fm.getHeight();
-                    line = new StringBuilder(word + " ");
-                } else {
-                    line.append(word).append(" ");
-                }
+            AttributedString text = new AttributedString(message);
+            text.addAttribute(TextAttribute.FONT, MESSAGE_FONT);
+            FontRenderContext frc = g2.getFontRenderContext();
+            LineBreakMeasurer measurer = new LineBreakMeasurer(text.getIterator(), frc);
+            float maxWidth = barWidth - (padding * 2);
+            float y = padding;
+            while (measurer.getPosition() < message.length()) {
+                TextLayout line = measurer.nextLayout(maxWidth);
+                y += line.getAscent();
+                line.draw(g2, padding, y);
+                y += line.getDescent() + line.getLeading();
             }
-            // Draw last line
-            g2.drawString(line.toString().trim(), barX + padding, y);
-
-            // Reset composite
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f));
+        } finally {
+            g2.dispose();
         }
+        return image;
     }
 }
@@ -0,0 +1,117 @@
+package CodeQuest.Entity;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Struct-of-arrays storage for NPCs - one primitive array per property instead of one object per NPC
+public class NPCCrowd {
+
+    // Properties shared by every NPC
+    public static final int SPEED = 2; // Movement speed in pixels per frame
+    public static final int ACTION_INTERVAL = 120; // Change direction every 2 seconds at 60fps
+    public static final long FRAME_DELAY = 200_000_000; // Delay between animation frames (200ms)
+    public static final int SOLID_X = 8; // Collision hitbox - lower half of sprite
+    public static final int SOLID_Y = 32;
+    public static final int SOLID_WIDTH = 32;
+    public static final int SOLID_HEIGHT = 32;
+
+    public int size = 0; // Number of NPCs stored
+
+    // Per-NPC data, indexed by NPC id
+    public int[] worldX = new int[16]; // World position
+    public int[] worldY = new int[16];
+    public byte[] direction = new byte[16]; // Direction code (Direction.code())
+    public byte[] spriteNum = new byte[16]; // Current animation frame (1-4)
+    public long[] lastFrameTime = new long[16]; // Last time the animation frame changed
+    public int[] actionCounter = new int[16]; // Frames since last direction change
+    public boolean[] stationary = new boolean[16]; // If true, NPC doesn't move
+    public short[] type = new short[16]; // Index into the shared sprite sets
+    public String[] dialogue = new String[16]; // Dialogue text, null if none
+
+    // Sprite sets shared by all NPCs of the same type, indexed by the type array
+    private final Map<String, Short> typeIds = new HashMap<>();
+    private final List<SpriteSet> typeSprites = new ArrayList<>();
+
+    // Add an NPC and return its index
+    public int add(String typeName, int x, int y, boolean isStationary, String text) {
+        ensureCapacity(size + 1);
+        int i = size++;
+        worldX[i] = x;
+        worldY[i] = y;
+        direction[i] = Direction.DOWN.code();
+        spriteNum[i] = 1;
+        lastFrameTime[i] = 0;
+        actionCounter[i] = 0;
+        stationary[i] = isStationary;
+        type[i] = getTypeId(typeName);
+        dialogue[i] = (text == null || text.isEmpty()) ? null : text;
+        return i;
+    }
+
+    // Remove all NPCs (sprite sets stay cached)
+    public void clear() {
+        size = 0;
+        Arrays.fill(dialogue, null);
+    }
+
+    // Get the sprite for an NPC's current direction and frame (stationary NPCs use the idle row)
+    public BufferedImage getSprite(int i) {
+        int row = stationary[i] ? SpriteSet.ROW_IDLE : Direction.fromCode(direction[i]).spriteRow;
+        return typeSprites.get(type[i]).get(row, spriteNum[i]);
+    }
+
+    // Advance the animation frame of one NPC if its frame delay has elapsed
+    public void animate(int i, long now) {
+        if (now - lastFrameTime[i] > FRAME_DELAY) {
+            spriteNum[i]++;
+            if (spriteNum[i] > 4) spriteNum[i] = 1;
+            lastFrameTime[i] = now;
+        }
+    }
+
+    // Pick a random walking direction (from the game's seeded generator, so saves can reproduce it)
+    public void pickRandomDirection(int i, Random random) {
+        int rand = random.nextInt(100);
+        if (rand < 25) direction[i] = Direction.UP.code();
+        else if (rand < 50) direction[i] = Direction.DOWN.code();
+        else if (rand < 75) direction[i] = Direction.LEFT.code();
+        else direction[i] = Direction.RIGHT.code();
+    }
+
+    // Bottom of the collision box, used for draw order sorting
+    public int getSortY(int i) {
+        return worldY[i] + SOLID_Y + SOLID_HEIGHT;
+    }
+
+    // Look up the type id for an NPC type, registering its shared sprite set on first use
+    private short getTypeId(String typeName) {
+        Short id = typeIds.get(typeName);
+        if (id != null) {
+            return id;
+        }
+        short newId = (short) typeSprites.size();
+        typeSprites.add(SpriteRegistry.getInstance().get(typeName));
+        typeIds.put(typeName, newId);
+        return newId;
+    }
+
+    // Grow all arrays together when full
+    private void ensureCapacity(int needed) {
+        if (needed <= worldX.length) return;
+        int newLength = Math.max(needed, worldX.length * 2);
+        worldX = Arrays.copyOf(worldX, newLength);
+        worldY = Arrays.copyOf(worldY, newLength);
+        direction = Arrays.copyOf(direction, newLength);
+        spriteNum = Arrays.copyOf(spriteNum, newLength);
+        lastFrameTime = Arrays.copyOf(lastFrameTime, newLength);
+        actionCounter = Arrays.copyOf(actionCounter, newLength);
+        stationary = Arrays.copyOf(stationary, newLength);
+        type = Arrays.copyOf(type, newLength);
+        dialogue = Arrays.copyOf(dialogue, newLength);
+    }
+}
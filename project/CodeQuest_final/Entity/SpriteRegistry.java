@@ -0,0 +1,51 @@
+package CodeQuest.Entity;
+
+import CodeQuest.Tiles.AssetHandler;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+// Loads each character's SpriteSet once and shares it between all instances (Singleton pattern)
+public class SpriteRegistry {
+    private static SpriteRegistry instance; // Single instance
+    private final Map<String, SpriteSet> sets = new HashMap<>(); // Character type -> sprite set
+
+    // Asset key names for each row, in SpriteSet row order
+    private static final String[] ROW_NAMES = {"up", "down", "left", "right", "idle"};
+
+    // Private constructor prevents external instantiation
+    private SpriteRegistry() {
+    }
+
+    // Get the single instance (creates it if doesn't exist)
+    public static SpriteRegistry getInstance() {
+        if (instance == null) {
+            instance = new SpriteRegistry();
+        }
+        return instance;
+    }
+
+    // Get the sprite set for a character type, loading it on first use
+    // Frames come from asset keys like "player_up1" ... "player_idle4"
+    // Synchronized because the level loader thread prepares NPCs while the game runs
+    public synchronized SpriteSet get(String characterType) {
+        SpriteSet set = sets.get(characterType);
+        if (set == null) {
+            set = load(characterType);
+            sets.put(characterType, set);
+        }
+        return set;
+    }
+
+    // Build a sprite set from the asset handler (string lookups only happen here)
+    private SpriteSet load(String characterType) {
+        BufferedImage[][] frames = new BufferedImage[SpriteSet.ROWS][SpriteSet.FRAMES];
+        for (int row = 0; row < SpriteSet.ROWS; row++) {
+            for (int f = 0; f < SpriteSet.FRAMES; f++) {
+                frames[row][f] = AssetHandler.getInstance().getImage(characterType + "_" + ROW_NAMES[row] + (f + 1));
+            }
+        }
+        return new SpriteSet(frames);
+    }
+}
@@ -0,0 +1,26 @@
+package CodeQuest.Entity;
+
+import java.awt.image.BufferedImage;
+
+// Immutable animation frames for one character type: [row][frame]
+// Rows follow the direction order up, down, left, right, idle
+public final class SpriteSet {
+    public static final int ROW_UP = 0;
+    public static final int ROW_DOWN = 1;
+    public static final int ROW_LEFT = 2;
+    public static final int ROW_RIGHT = 3;
+    public static final int ROW_IDLE = 4;
+    public static final int ROWS = 5; // Number of animation rows
+    public static final int FRAMES = 4; // Frames per row
+
+    private final BufferedImage[][] frames; // Never exposed, so instances can be shared safely
+
+    SpriteSet(BufferedImage[][] frames) {
+        this.frames = frames;
+    }
+
+    // Get one frame (frame is 1-based like entity.spriteNum)
+    public BufferedImage get(int row, int frame) {
+        return frames[row][frame - 1];
+    }
+}
@@ -0,0 +1,133 @@
+package CodeQuest.Grader;
+
+import CodeQuest.Main.LevelManager;
+import CodeQuest.Script.ScriptLimits;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Command-line auto-grader - runs many student programs headless and prints one result per program
+// Usage: java CodeQuest.Grader.BatchGrader [--json] [--threads N] [--level N] <program file or directory>...
+// Directories are searched (not recursively) for .py and .txt files. The level (--level counts from 1
+// in res/Maps/Levels.txt, default 1) is loaded once and shared; every program gets its own
+// GraderWorld and the runs are spread over all cores.
+// Results go to standard output as CSV (default) or a JSON array, in the order the files were given.
+public class BatchGrader {
+    private static final long WORKER_STACK_SIZE = 16 * 1024 * 1024; // Same as the game's script worker
+
+    public static void main(String[] args) throws InterruptedException {
+        boolean json = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int level = 0; // Index in the course
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--json")) {
+                json = true;
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Math.max(1, number(args[++i]));
+            } else if (args[i].equals("--level") && i + 1 < args.length) {
+                level = number(args[++i]) - 1;
+            } else {
+                addPrograms(new File(args[i]), files);
+            }
+        }
+        if (files.isEmpty() || level < 0 || level >= LevelManager.readManifest().size()) {
+            usage();
+        }
+
+        long start = System.nanoTime();
+        WorldTemplate world = WorldTemplate.load(level);
+        List<GradeReport> reports = gradeAll(world, files, threads);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        if (json) {
+            System.out.println("[");
+            for (int i = 0; i < reports.size(); i++) {
+                System.out.println("  " + reports.get(i).toJson() + (i + 1 < reports.size() ? "," : ""));
+            }
+            System.out.println("]");
+        } else {
+            System.out.println(GradeReport.CSV_HEADER);
+            for (GradeReport report : reports) {
+                System.out.println(report.toCsv());
+            }
+        }
+        System.err.println("Graded " + reports.size() + " programs on " + threads + " threads in " + millis + " ms");
+    }
+
+    // The value of a numeric option, or the usage line and exit code 2 if it is not a number
+    private static int number(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            usage();
+            return 0; // Not reached
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: BatchGrader [--json] [--threads N] [--level N] <program file or directory>...");
+        System.exit(2);
+    }
+
+    // Grade every file on a pool of worker threads, results in file order
+    public static List<GradeReport> gradeAll(WorldTemplate world, List<File> files, int threads) throws InterruptedException {
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(null, task, "Grader worker " + workerCount.incrementAndGet(), WORKER_STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<GradeReport>> tasks = new ArrayList<>();
+            for (File file : files) {
+                tasks.add(() -> grade(world, file));
+            }
+            List<GradeReport> reports = new ArrayList<>();
+            for (Future<GradeReport> future : pool.invokeAll(tasks)) {
+                try {
+                    reports.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause()); // grade() reports its own errors
+                }
+            }
+            return reports;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Run one program in a fresh world
+    private static GradeReport grade(WorldTemplate world, File file) {
+        String source;
+        try {
+            source = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return new GradeReport(file.getName(), 0, 0, 0, 0, 0, false, "Cannot read file: " + e.getMessage());
+        }
+        return new GraderWorld(world).grade(file.getName(), source, ScriptLimits.DEFAULT);
+    }
+
+    // Add a program file, or the program files in a directory sorted by name
+    private static void addPrograms(File path, List<File> files) {
+        if (!path.isDirectory()) {
+            files.add(path);
+            return;
+        }
+        File[] entries = path.listFiles((dir, name) -> name.endsWith(".py") || name.endsWith(".txt"));
+        if (entries == null) return;
+        Arrays.sort(entries);
+        files.addAll(Arrays.asList(entries));
+    }
+}
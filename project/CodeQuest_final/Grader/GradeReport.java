@@ -0,0 +1,69 @@
+package CodeQuest.Grader;
+
+// Result of grading one program, printed as a CSV row or a JSON object
+public final class GradeReport {
+    public static final String CSV_HEADER = "submission,chests_opened,damage,steps,ticks,keys,won,error";
+
+    public final String submission; // File name of the program
+    public final int chestsOpened; // Chests opened before the program ended
+    public final int damage; // Hearts lost (a failed program costs one)
+    public final int steps; // Move commands carried out
+    public final int ticks; // Game ticks the run took (60 per second)
+    public final int keys; // Keys still held at the end
+    public final boolean won; // All chests opened
+    public final String error; // Error message, null if the program ran to the end
+
+    public GradeReport(String submission, int chestsOpened, int damage, int steps, int ticks, int keys,
+                       boolean won, String error) {
+        this.submission = submission;
+        this.chestsOpened = chestsOpened;
+        this.damage = damage;
+        this.steps = steps;
+        this.ticks = ticks;
+        this.keys = keys;
+        this.won = won;
+        this.error = error;
+    }
+
+    public String toCsv() {
+        return csv(submission) + "," + chestsOpened + "," + damage + "," + steps + "," + ticks + ","
+                + keys + "," + won + "," + (error == null ? "" : csv(error));
+    }
+
+    public String toJson() {
+        return "{\"submission\":" + json(submission) + ",\"chests_opened\":" + chestsOpened
+                + ",\"damage\":" + damage + ",\"steps\":" + steps + ",\"ticks\":" + ticks
+                + ",\"keys\":" + keys + ",\"won\":" + won
+                + ",\"error\":" + (error == null ? "null" : json(error)) + "}";
+    }
+
+    // Quote a CSV field if it contains a separator, quote or line break
+    private static String csv(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    // JSON string literal
+    private static String json(String text) {
+        StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"').toString();
+    }
+}
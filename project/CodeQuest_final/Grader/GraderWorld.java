@@ -0,0 +1,217 @@
+package CodeQuest.Grader;
+
+import CodeQuest.Entity.Direction;
+import CodeQuest.Entity.HealthSystem;
+import CodeQuest.Entity.NPCCrowd;
+import CodeQuest.Entity.Player;
+import CodeQuest.Main.CollisionChecker;
+import CodeQuest.Main.CommandAdapter;
+import CodeQuest.Main.CommandParser;
+import CodeQuest.Main.GamePanel;
+import CodeQuest.Main.GameScriptHost;
+import CodeQuest.Script.Program;
+import CodeQuest.Script.ScriptError;
+import CodeQuest.Script.ScriptLimits;
+import CodeQuest.Tiles.Autotiler;
+
+// One headless play-through of a student program on a shared WorldTemplate
+// Offers the same functions and variables as CommandParser (both are a GameScriptHost), but runs on
+// the calling thread and simulates the ticks a command takes on the spot instead of waiting for a game
+// loop: movement, collisions, key pickups and chest opening follow CommandAdapter and GamePanel.updateWorld.
+// Only the run's own state lives here; which objects were collected or opened is the template's
+// shared "untouched" array until the first change, then a private copy (copy-on-write).
+public class GraderWorld extends GameScriptHost {
+    private static final int ACTION_DELAY_TICKS = CommandParser.COMMAND_DELAY * GamePanel.FPS / 1000; // Between action starts
+
+    private final WorldTemplate world; // Shared, read only
+    private boolean[] taken; // Keys collected and chests opened, by object index (copy-on-write)
+
+    private int playerX = Player.START_X; // Player world position
+    private int playerY = Player.START_Y;
+    private int health = HealthSystem.MAX_HEALTH;
+    private int keys = 0; // Keys held
+    private int chestsOpened = 0;
+    private int steps = 0; // Move commands carried out
+    private int ticks = 0; // Game ticks simulated
+    private int lastActionTick = -ACTION_DELAY_TICKS; // Tick the last action started on
+    private boolean won = false; // All chests open - the game stops here
+
+    public GraderWorld(WorldTemplate world) {
+        this.world = world;
+        this.taken = world.untouched;
+    }
+
+    // Compile and run a program to the end (or until it wins, fails or breaks a limit) and report the result
+    // A failed program costs one heart, as in the game, and ends the run
+    public GradeReport grade(String name, String source, ScriptLimits limits) {
+        String error = null;
+        try {
+            Program.compile(source, this).run(this, limits, () -> won);
+        } catch (ScriptError e) {
+            if (!won) { // Interrupted because the level is finished, not a failure
+                error = e.getMessage();
+            }
+        } catch (RuntimeException | StackOverflowError e) {
+            error = new ScriptError("InternalError", 1, e.toString()).getMessage();
+        }
+        if (error != null) {
+            health--;
+        }
+        return new GradeReport(name, chestsOpened, HealthSystem.MAX_HEALTH - health, steps, ticks, keys, won, error);
+    }
+
+    // ========== GameScriptHost ==========
+
+    @Override
+    protected int playerX() {
+        return playerX;
+    }
+
+    @Override
+    protected int playerY() {
+        return playerY;
+    }
+
+    @Override
+    protected int health() {
+        return health;
+    }
+
+    @Override
+    protected int keys() {
+        return keys;
+    }
+
+    @Override
+    protected boolean isKeyNear() {
+        return world.isKeyNear(playerCol(), playerRow(), taken);
+    }
+
+    @Override
+    protected boolean isBlocked(Direction direction) {
+        return world.isBlocked(playerCol() + direction.dx, playerRow() + direction.dy, taken);
+    }
+
+    // print() output is not graded, but it takes its turn in the command queue
+    @Override
+    public void print(String text) {
+        startAction();
+    }
+
+    // ========== Simulation ==========
+
+    // Tile the centre of the player's sprite is on
+    private int playerCol() {
+        return (playerX + GamePanel.TILE_SIZE / 2) / GamePanel.TILE_SIZE;
+    }
+
+    private int playerRow() {
+        return (playerY + GamePanel.TILE_SIZE / 2) / GamePanel.TILE_SIZE;
+    }
+
+    // Let ticks pass until the command queue would start the next action (CommandAdapter.update)
+    private void startAction() {
+        do {
+            tick();
+        } while (ticks - lastActionTick < ACTION_DELAY_TICKS && !won);
+        lastActionTick = ticks;
+    }
+
+    // One-tile move, ticked until the target is reached or the way is blocked (CommandAdapter.smoothMove)
+    @Override
+    protected void move(Direction direction) {
+        startAction();
+        if (won) return;
+        steps++;
+        int targetX = playerX + direction.dx * GamePanel.TILE_SIZE;
+        int targetY = playerY + direction.dy * GamePanel.TILE_SIZE;
+        while (true) {
+            tick();
+            int dx = targetX - playerX;
+            int dy = targetY - playerY;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance <= CommandAdapter.MOVE_SPEED) {
+                playerX = targetX; // Close enough - snap to target
+                playerY = targetY;
+                return;
+            }
+            double ratio = CommandAdapter.MOVE_SPEED / distance;
+            int stepX = (int) (dx * ratio);
+            int stepY = (int) (dy * ratio);
+            int predictX = playerX + stepX + Integer.signum(stepX) * CommandAdapter.LOOK_AHEAD;
+            int predictY = playerY + stepY + Integer.signum(stepY) * CommandAdapter.LOOK_AHEAD;
+            if (collides(predictX, predictY)) {
+                return;
+            }
+            playerX += stepX;
+            playerY += stepY;
+            if (won) return; // The game still moves on the tick the last chest opens, then stops
+        }
+    }
+
+    // Start of a game tick: pick up keys and open chests at the current position (GamePanel.updateWorld)
+    private void tick() {
+        ticks++;
+        int left = playerX + Player.SOLID_X;
+        int top = playerY + Player.SOLID_Y;
+        int size = Player.SOLID_SIZE;
+        for (int i = 0; i < world.objectCount; i++) {
+            if (taken[i]) continue;
+            if (world.kind[i] == WorldTemplate.KEY) {
+                int keyX = world.worldX[i] + world.solidX[i];
+                int keyY = world.worldY[i] + world.solidY[i];
+                if (left < keyX + world.solidWidth[i] && keyX < left + size
+                        && top < keyY + world.solidHeight[i] && keyY < top + size) {
+                    take(i);
+                    keys++;
+                }
+            } else if (world.kind[i] == WorldTemplate.CHEST && keys > 0) {
+                int dx = left + size / 2 - (world.worldX[i] + GamePanel.TILE_SIZE / 2);
+                int dy = top + size / 2 - (world.worldY[i] + GamePanel.TILE_SIZE / 2);
+                if ((int) Math.sqrt(dx * dx + dy * dy) < GamePanel.TILE_SIZE) {
+                    take(i);
+                    keys--;
+                    chestsOpened++;
+                }
+            }
+        }
+        if (chestsOpened == world.chestCount) {
+            won = true;
+        }
+    }
+
+    // Mark an object collected or opened, copying the shared array on the first change
+    private void take(int i) {
+        if (taken == world.untouched) {
+            taken = taken.clone();
+        }
+        taken[i] = true;
+    }
+
+    // Player hitbox at a future position against solid objects and NPCs (CollisionChecker.checkAllCollisions)
+    private boolean collides(int futureX, int futureY) {
+        int x = futureX + Player.SOLID_X;
+        int y = futureY + Player.SOLID_Y;
+        int size = Player.SOLID_SIZE;
+        if (Autotiler.blocks(world.collisionMask, GamePanel.MAX_WORLD_COL, GamePanel.MAX_WORLD_ROW,
+                GamePanel.TILE_SIZE, x, y, size, size) || world.scenery.blocks(x, y, size, size)) {
+            return true;
+        }
+        for (int i = 0; i < world.objectCount; i++) {
+            boolean solid = world.kind[i] == WorldTemplate.CHEST ? !taken[i] : world.collision[i];
+            if (solid && CollisionChecker.overlaps(x, y, size, size,
+                    world.worldX[i] + world.solidX[i], world.worldY[i] + world.solidY[i],
+                    world.solidWidth[i], world.solidHeight[i])) {
+                return true;
+            }
+        }
+        for (int i = 0; i < world.npcCount; i++) {
+            if (CollisionChecker.overlaps(x, y, size, size,
+                    world.npcX[i] + NPCCrowd.SOLID_X, world.npcY[i] + NPCCrowd.SOLID_Y,
+                    NPCCrowd.SOLID_WIDTH, NPCCrowd.SOLID_HEIGHT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,152 @@
+package CodeQuest.Grader;
+
+import CodeQuest.Entity.NPCCrowd;
+import CodeQuest.Entity.NPCManager;
+import CodeQuest.Tiles.Autotiler;
+import CodeQuest.Main.GamePanel;
+import CodeQuest.Main.LevelManager;
+import CodeQuest.Tiles.MapObject;
+import CodeQuest.Tiles.ObjectManager;
+import CodeQuest.Tiles.Scenery;
+import CodeQuest.Tiles.TileManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+// The level as the batch grader sees it - map, objects and NPCs loaded once and shared by every run
+// Nothing here changes after load, so any number of GraderWorld instances can read it from any thread.
+// Objects are kept as flat arrays of the values collision and pickups need (no sprites, no MapObjects).
+public final class WorldTemplate {
+    static final byte OTHER = 0; // Object kinds
+    static final byte KEY = 1;
+    static final byte CHEST = 2;
+
+    final int[][] mapTile; // Tile IDs [col][row], beach edges baked in
+    final boolean[] collisionMask; // Tiles that block movement (the beach), index col + row * GamePanel.MAX_WORLD_COL
+
+    final Scenery scenery; // Static objects (trees, beach, walls ...)
+
+    // Interactive objects (keys, chests ...), indexed as in ObjectManager.objects
+    final int objectCount;
+    final byte[] kind; // OTHER, KEY or CHEST
+    final int[] worldX, worldY; // Position in world pixels
+    final int[] solidX, solidY, solidWidth, solidHeight; // Hitbox relative to the position
+    final boolean[] collision; // Blocks movement before it is collected or opened
+    final int chestCount; // Chests to open to win
+
+    // NPCs - frozen at their spawn points so grades do not depend on random wandering
+    final int npcCount;
+    final int[] npcX, npcY;
+
+    // Per-tile lookups for the sensors
+    private final boolean[] staticBlocked; // Solid tile or object that never changes (scenery, not a chest)
+    private final int[] keyAt; // Index of the key on a tile, -1 if none
+    private final int[] chestAt; // Index of the chest on a tile, -1 if none
+
+    final boolean[] untouched; // Nothing collected or opened - shared by all runs until they change something
+
+    private WorldTemplate(int[][] mapTile, boolean[] collisionMask, List<MapObject> objects, Scenery scenery, NPCCrowd crowd) {
+        this.mapTile = mapTile;
+        this.collisionMask = collisionMask;
+        this.scenery = scenery;
+
+        objectCount = objects.size();
+        kind = new byte[objectCount];
+        worldX = new int[objectCount];
+        worldY = new int[objectCount];
+        solidX = new int[objectCount];
+        solidY = new int[objectCount];
+        solidWidth = new int[objectCount];
+        solidHeight = new int[objectCount];
+        collision = new boolean[objectCount];
+        staticBlocked = new boolean[GamePanel.MAX_WORLD_COL * GamePanel.MAX_WORLD_ROW];
+        keyAt = new int[GamePanel.MAX_WORLD_COL * GamePanel.MAX_WORLD_ROW];
+        chestAt = new int[GamePanel.MAX_WORLD_COL * GamePanel.MAX_WORLD_ROW];
+        Arrays.fill(keyAt, -1);
+        Arrays.fill(chestAt, -1);
+        for (int row = 0; row < GamePanel.MAX_WORLD_ROW; row++) {
+            for (int col = 0; col < GamePanel.MAX_WORLD_COL; col++) {
+                int tile = tileIndex(col, row);
+                staticBlocked[tile] = collisionMask[tile] || scenery.hasSolid(col, row);
+            }
+        }
+
+        int chests = 0;
+        for (int i = 0; i < objectCount; i++) {
+            MapObject obj = objects.get(i);
+            kind[i] = obj.isKey() ? KEY : obj.isChest() ? CHEST : OTHER;
+            worldX[i] = obj.worldX;
+            worldY[i] = obj.worldY;
+            solidX[i] = obj.type.solidX;
+            solidY[i] = obj.type.solidY;
+            solidWidth[i] = obj.type.solidWidth;
+            solidHeight[i] = obj.type.solidHeight;
+            collision[i] = obj.collision;
+
+            // Same tile as SensorGrid assigns the object to
+            int tile = tileIndex(obj.worldX / GamePanel.TILE_SIZE, obj.worldY / GamePanel.TILE_SIZE);
+            if (tile < 0) continue;
+            if (kind[i] == KEY && keyAt[tile] < 0) {
+                keyAt[tile] = i;
+            } else if (kind[i] == CHEST && chestAt[tile] < 0) {
+                chestAt[tile] = i;
+            } else if (kind[i] == OTHER && obj.collision) {
+                staticBlocked[tile] = true;
+            }
+            if (kind[i] == CHEST) {
+                chests++;
+            }
+        }
+        chestCount = chests;
+
+        npcCount = crowd.size;
+        npcX = Arrays.copyOf(crowd.worldX, npcCount);
+        npcY = Arrays.copyOf(crowd.worldY, npcCount);
+
+        untouched = new boolean[objectCount];
+    }
+
+    // Load the first level of the game's course (call once, then share)
+    public static WorldTemplate load() {
+        return load(0);
+    }
+
+    // Load a level of the course by index, from 0 (call once, then share)
+    public static WorldTemplate load(int levelIndex) {
+        LevelManager.Level level = LevelManager.readManifest().get(levelIndex);
+        int[][] mapTile = new int[GamePanel.MAX_WORLD_COL][GamePanel.MAX_WORLD_ROW];
+        TileManager.readMap(level.mapFile, mapTile);
+        Scenery.Builder scenery = new Scenery.Builder(GamePanel.TILE_SIZE, GamePanel.MAX_WORLD_COL, GamePanel.MAX_WORLD_ROW);
+        Autotiler terrain = new Autotiler(GamePanel.MAX_WORLD_COL, GamePanel.MAX_WORLD_ROW);
+        List<MapObject> objects = ObjectManager.readObjects(level.objectsFile, GamePanel.TILE_SIZE, scenery, terrain);
+        boolean[] collisionMask = terrain.bake(mapTile);
+        NPCCrowd crowd = new NPCCrowd();
+        NPCManager.readNPCs(level.npcsFile, crowd, GamePanel.TILE_SIZE);
+        return new WorldTemplate(mapTile, collisionMask, objects, scenery.build(), crowd);
+    }
+
+    // Solid object on the tile, given which objects a run has collected or opened (outside the map counts as blocked)
+    boolean isBlocked(int col, int row, boolean[] taken) {
+        int tile = tileIndex(col, row);
+        if (tile < 0) return true;
+        int chest = chestAt[tile];
+        return staticBlocked[tile] || (chest >= 0 && !taken[chest]);
+    }
+
+    // Key not collected yet on the tile or one of the eight around it
+    boolean isKeyNear(int col, int row, boolean[] taken) {
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                int tile = tileIndex(c, r);
+                if (tile >= 0 && keyAt[tile] >= 0 && !taken[keyAt[tile]]) return true;
+            }
+        }
+        return false;
+    }
+
+    // Index into the per-tile arrays, -1 outside the map
+    private static int tileIndex(int col, int row) {
+        if (col < 0 || row < 0 || col >= GamePanel.MAX_WORLD_COL || row >= GamePanel.MAX_WORLD_ROW) return -1;
+        return col + row * GamePanel.MAX_WORLD_COL;
+    }
+}
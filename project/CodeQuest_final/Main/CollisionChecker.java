@@ -1,11 +1,9 @@
 package CodeQuest.Main;
 
-import CodeQuest.Entity.NPC;
+import CodeQuest.Entity.NPCCrowd;
 import CodeQuest.Entity.entity;
 import CodeQuest.Tiles.MapObject;
 
-import java.awt.Rectangle;
-
 // Handles collision detection for entities with tiles, objects, and other entities
 public class CollisionChecker {
     GamePanel gamePanel;
@@ -14,67 +12,72 @@ public class CollisionChecker {
         this.gamePanel = gamePanel;
     }
 
+    // Check collisions for an entity (the player) moving to a future position
     public boolean checkAllCollisions(entity entity, int futureX, int futureY) {
-        Rectangle futureSolid = new Rectangle(
+        return checkArea(
                 futureX + entity.solidArea.x,
                 futureY + entity.solidArea.y,
                 entity.solidArea.width,
-                entity.solidArea.height
+                entity.solidArea.height,
+                entity != gamePanel.player,
+                -1
         );
+    }
 
-        // Check collision with objects
+    // Check collisions for the NPC at the given crowd index moving to a future position
+    public boolean checkNPCCollision(int npcIndex, int futureX, int futureY) {
+        return checkArea(
+                futureX + NPCCrowd.SOLID_X,
+                futureY + NPCCrowd.SOLID_Y,
+                NPCCrowd.SOLID_WIDTH,
+                NPCCrowd.SOLID_HEIGHT,
+                true,
+                npcIndex
+        );
+    }
+
+    // Check a hitbox against objects, the player (optional) and all NPCs except skipNpc
+    private boolean checkArea(int x, int y, int width, int height, boolean checkPlayer, int skipNpc) {
+        // Check collision with solid tiles, then objects (static scenery first)
+        if (gamePanel.tileM.blocks(x, y, width, height) || gamePanel.objM.scenery.blocks(x, y, width, height)) {
+            return true;
+        }
         for (MapObject obj : gamePanel.objM.objects) {
-            if (obj.collision) {
-                obj.solidArea.x = obj.worldX + obj.solidAreaDefaultX;
-                obj.solidArea.y = obj.worldY + obj.solidAreaDefaultY;
-                if (futureSolid.intersects(obj.solidArea)) {
-                    Rectangle intersection = futureSolid.intersection(obj.solidArea);
-                    if (intersection.width > 5 && intersection.height > 5) {
-                        obj.solidArea.x = obj.solidAreaDefaultX;
-                        obj.solidArea.y = obj.solidAreaDefaultY;
-                        return true;
-                    }
-                }
-                obj.solidArea.x = obj.solidAreaDefaultX;
-                obj.solidArea.y = obj.solidAreaDefaultY;
+            if (obj.collision && overlaps(x, y, width, height,
+                    obj.worldX + obj.type.solidX, obj.worldY + obj.type.solidY,
+                    obj.type.solidWidth, obj.type.solidHeight)) {
+                return true;
             }
         }
 
         // Check collision with player (if entity is not player)
-        if (entity != gamePanel.player) {
-            Rectangle playerRect = new Rectangle(
-                    gamePanel.player.worldX + gamePanel.player.solidArea.x,
-                    gamePanel.player.worldY + gamePanel.player.solidArea.y,
-                    gamePanel.player.solidArea.width,
-                    gamePanel.player.solidArea.height
-            );
-            if (futureSolid.intersects(playerRect)) {
-                Rectangle intersection = futureSolid.intersection(playerRect);
-                if (intersection.width > 5 && intersection.height > 5) {
-                    return true;
-                }
+        if (checkPlayer) {
+            entity player = gamePanel.player;
+            if (overlaps(x, y, width, height,
+                    player.worldX + player.solidArea.x, player.worldY + player.solidArea.y,
+                    player.solidArea.width, player.solidArea.height)) {
+                return true;
             }
         }
 
-        // Check collision with other NPCs
-        for (NPC npc : gamePanel.npcM.npcs) {
-            if (npc != entity) {
-                Rectangle npcRect = new Rectangle(
-                        npc.worldX + npc.solidArea.x,
-                        npc.worldY + npc.solidArea.y,
-                        npc.solidArea.width,
-                        npc.solidArea.height
-                );
-                if (futureSolid.intersects(npcRect)) {
-                    Rectangle intersection = futureSolid.intersection(npcRect);
-                    if (intersection.width > 5 && intersection.height > 5) {
-                        return true;
-                    }
-                }
+        // Check collision with NPCs (linear pass over the crowd arrays)
+        NPCCrowd crowd = gamePanel.npcM.crowd;
+        for (int i = 0; i < crowd.size; i++) {
+            if (i != skipNpc && overlaps(x, y, width, height,
+                    crowd.worldX[i] + NPCCrowd.SOLID_X, crowd.worldY[i] + NPCCrowd.SOLID_Y,
+                    NPCCrowd.SOLID_WIDTH, NPCCrowd.SOLID_HEIGHT)) {
+                return true;
             }
         }
 
         return false;
     }
 
+    // True if two boxes overlap by more than 5 pixels on both axes (ignores grazing contact)
+    // Public so the headless batch grader collides exactly like the game
+    public static boolean overlaps(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        int overlapW = Math.min(ax + aw, bx + bw) - Math.max(ax, bx);
+        int overlapH = Math.min(ay + ah, by + bh) - Math.max(ay, by);
+        return overlapW > 5 && overlapH > 5;
+    }
 }
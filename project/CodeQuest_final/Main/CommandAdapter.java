@@ -1,11 +1,17 @@
 package CodeQuest.Main;
 
+import CodeQuest.Entity.Direction;
+import CodeQuest.Entity.EntityState;
 import CodeQuest.Entity.Player;
 
 import java.util.*;
 
 // Executes queued commands with smooth movement
 public class CommandAdapter {
+    public static final int MAX_QUEUED_ACTIONS = 1000; // Actions beyond this are dropped (bounds memory)
+    public static final int MOVE_SPEED = 3; // Movement speed in pixels per frame
+    public static final int LOOK_AHEAD = 5; // Collisions are checked this many pixels past each step
+
     private GamePanel gamePanel; // Reference to game panel
     private Player player; // Reference to player
     private Queue<Runnable> actionQueue; // Queue of actions to execute
@@ -16,7 +22,8 @@ public class CommandAdapter {
     private long frameDelay = 100_000_000; // Delay between animation frames
     private boolean isMoving; // Whether player is currently moving
     private int targetX, targetY; // Target position for smooth movement
-    private int moveSpeed = 3; // Movement speed in pixels per frame
+    private boolean queueFullReported = false; // Dropped actions were reported since the queue was last full
+    private Runnable moveFinished; // Called when the current move ends (target reached, blocked or cleared)
     
     // Constructor initializes adapter
     public CommandAdapter(GamePanel gamePanel) {
@@ -66,25 +73,27 @@ public class CommandAdapter {
         // Calculate distance
         double distance = Math.sqrt(dx * dx + dy * dy);
 
-        if (distance <= moveSpeed) {
+        if (distance <= MOVE_SPEED) {
             // Close enough - snap to target
             player.worldX = targetX;
             player.worldY = targetY;
             isMoving = false;
+            finishMove();
             // Keep direction for next command
         } else {
             // Move toward target
-            double ratio = moveSpeed / distance;
+            double ratio = MOVE_SPEED / distance;
             int stepX = (int)(dx * ratio);
             int stepY = (int)(dy * ratio);
 
-            // Predict future position by 5 pixels ahead of step
-            int predictX = player.worldX + stepX + (stepX > 0 ? 5 : stepX < 0 ? -5 : 0);
-            int predictY = player.worldY + stepY + (stepY > 0 ? 5 : stepY < 0 ? -5 : 0);
+            // Predict future position LOOK_AHEAD pixels ahead of step
+            int predictX = player.worldX + stepX + Integer.signum(stepX) * LOOK_AHEAD;
+            int predictY = player.worldY + stepY + Integer.signum(stepY) * LOOK_AHEAD;
 
             // Check if predicted position would collide
             if (gamePanel.collisionChecker.checkAllCollisions(player, predictX, predictY)) {
                 isMoving = false;
+                finishMove();
                 return;
             }
 
@@ -103,11 +112,20 @@ public class CommandAdapter {
             }
         }
     }
-    // Clears action queue and stops movement
-    private void startSmoothMove(int newTargetX, int newTargetY, String direction) {
+    // Tell whoever waits for the current move that it is over
+    private void finishMove() {
+        Runnable finished = moveFinished;
+        moveFinished = null;
+        if (finished != null) {
+            finished.run();
+        }
+    }
+
+    // Starts smooth movement towards a target in the given direction
+    private void startSmoothMove(int newTargetX, int newTargetY, Direction direction) {
         targetX = newTargetX;
         targetY = newTargetY;
-        player.direction = direction;
+        player.setState(EntityState.COMMAND_MOVE, direction);
         isMoving = true;
     }
 
@@ -125,49 +143,70 @@ public class CommandAdapter {
 
     public void clearQueue() {
         actionQueue.clear();
+        queueFullReported = false;
         isExecuting = false;
         isMoving = false;
         targetX = player.worldX;
         targetY = player.worldY;
+        finishMove();
     }
 
     // ========== Movement Execution Methods ==========
 
     public void executeMoveUp() {
-        actionQueue.add(() -> {
-            int newY = player.worldY - 64;
-            player.direction = "up";
-            startSmoothMove(player.worldX, newY, "up");
-        });
+        executeMove(Direction.UP);
     }
 
     public void executeMoveDown() {
-        actionQueue.add(() -> {
-            int newY = player.worldY + 64;
-            player.direction = "down";
-            startSmoothMove(player.worldX, newY, "down");
-        });
+        executeMove(Direction.DOWN);
     }
 
     public void executeMoveLeft() {
-        actionQueue.add(() -> {
-            int newX = player.worldX - 64;
-            player.direction = "left";
-            startSmoothMove(newX, player.worldY, "left");
-        });
+        executeMove(Direction.LEFT);
     }
 
     public void executeMoveRight() {
-        actionQueue.add(() -> {
-            int newX = player.worldX + 64;
-            player.direction = "right";
-            startSmoothMove(newX, player.worldY, "right");
+        executeMove(Direction.RIGHT);
+    }
+
+    // Add an action unless the queue is full, in which case it is dropped and reported once
+    private boolean enqueue(Runnable action) {
+        if (actionQueue.size() >= MAX_QUEUED_ACTIONS) {
+            if (!queueFullReported && gamePanel.console != null) {
+                gamePanel.console.println("Command queue is full (" + MAX_QUEUED_ACTIONS + " actions) - extra actions dropped");
+            }
+            queueFullReported = true;
+            return false;
+        }
+        queueFullReported = false;
+        actionQueue.add(action);
+        return true;
+    }
+
+    // Queues a one-tile move in the given direction
+    public void executeMove(Direction direction) {
+        executeMove(direction, null);
+    }
+
+    // Queues a one-tile move, onFinished runs on the game thread when it ends (or at once if it was dropped)
+    public void executeMove(Direction direction, Runnable onFinished) {
+        boolean queued = enqueue(() -> {
+            int newX = player.worldX + direction.dx * 64;
+            int newY = player.worldY + direction.dy * 64;
+            startSmoothMove(newX, newY, direction);
+            moveFinished = onFinished;
         });
+        if (!queued && onFinished != null) {
+            onFinished.run();
+        }
     }
 
     public void executePrint(String message) {
-        actionQueue.add(() -> {
+        enqueue(() -> {
             gamePanel.messageSystem.showPrintMessage(message);
+            if (gamePanel.console != null) {
+                gamePanel.console.println(message); // Also keep it in the console history
+            }
         });
     }
 }
@@ -10,11 +10,14 @@ public class CommandInputPanel extends JPanel {
     private CommandParser commandParser; // Parser for executing commands
     private JTextField commandField; // Input field for commands
     private JTextArea outputArea; // Output display area
+    private ConsoleOutput console; // Bounded, batched output model for outputArea
     private JButton executeButton; // Execute command button
     private JButton helpButton; // Show help button
     private JButton clearButton; // Clear queue button
     private JLabel queueLabel; // Shows queue size
     private JLabel hintLabel; // Shows command hints
+    private JLabel promptLabel; // ">>> ", or "... " while a block is being typed
+    private final StringBuilder pendingBlock = new StringBuilder(); // Lines of an unfinished block (EDT)
     
     // Constructor initializes command input panel
     public CommandInputPanel(CommandParser commandParser) {
@@ -57,6 +60,10 @@ public class CommandInputPanel extends JPanel {
                 " Try: player.moveright()",
                 " Try: for i in range(10) : player.moveup()",
                 " Try: if x > 200 : player.moveleft()",
+                " Try: for i in range(3):  (Enter, indented lines, empty line runs it)",
+                " Try: def square(n):  (nested loops and defs work too)",
+                " Try: while not blocked(RIGHT): player.moveright()",
+                " Try: if near_key(): print(keys)",
             };
             
             @Override
@@ -69,11 +76,11 @@ public class CommandInputPanel extends JPanel {
             }
         });
         
-        JLabel pythonLabel = new JLabel(">>> ");
-        pythonLabel.setForeground(new Color(86, 156, 214));
-        pythonLabel.setFont(new Font("Consolas", Font.BOLD, 14));
+        promptLabel = new JLabel(">>> ");
+        promptLabel.setForeground(new Color(86, 156, 214));
+        promptLabel.setFont(new Font("Consolas", Font.BOLD, 14));
         
-        inputPanel.add(pythonLabel, BorderLayout.WEST);
+        inputPanel.add(promptLabel, BorderLayout.WEST);
         inputPanel.add(commandField, BorderLayout.CENTER);
         
         topSection.add(hintLabel, BorderLayout.NORTH);
@@ -107,6 +114,11 @@ public class CommandInputPanel extends JPanel {
         outputArea.setForeground(Color.LIGHT_GRAY);
         outputArea.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
         outputArea.setRows(5);
+        console = new ConsoleOutput(outputArea);
+        commandParser.gamePanel.console = console; // Game thread output and the per-frame flush
+
+        // Refresh the queue label only when the queue size changes
+        commandParser.gamePanel.addQueueSizeListener(size -> SwingUtilities.invokeLater(() -> updateQueueLabel(size)));
         
         JScrollPane scrollPane = new JScrollPane(outputArea);
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(60, 60, 60)));
@@ -152,24 +164,58 @@ public class CommandInputPanel extends JPanel {
     }
     
     // Executes command from input field
+    // Blocks are typed like in the Python shell: a line ending in ':' opens a block,
+    // following lines are collected (indentation is kept) and an empty line runs the whole block
     private void executeCommand() {
-        String command = commandField.getText().trim();
+        String line = commandField.getText();
+        commandField.setText("");
 
+        if (pendingBlock.length() > 0) {
+            if (!line.trim().isEmpty()) {
+                appendOutput("... " + line);
+                pendingBlock.append(line).append('\n');
+                commandField.setText(nextIndent(line));
+                return;
+            }
+            String program = pendingBlock.toString();
+            endBlock();
+            runProgram(program);
+            return;
+        }
+
+        String command = line.trim();
         if (command.isEmpty()) {
             return;
         }
 
         appendOutput(">>> " + command);
+        if (command.endsWith(":")) {
+            pendingBlock.append(command).append('\n');
+            promptLabel.setText("... ");
+            commandField.setText(nextIndent(command));
+            return;
+        }
+        runProgram(command);
+    }
 
-        boolean success = commandParser.parseCommand(command);
+    // Run on the script worker, so long programs never block the EDT; errors go through the console
+    private void runProgram(String program) {
+        commandParser.submit(program);
+    }
 
-        if (!success) {
-            appendOutput("SyntaxError: Invalid command syntax");
-            appendOutput("Type 'help' or click Help button for examples.\n");
+    // Indentation to prefill for the line after this one
+    private static String nextIndent(String line) {
+        int end = 0;
+        while (end < line.length() && Character.isWhitespace(line.charAt(end))) {
+            end++;
         }
+        return line.substring(0, end) + (line.trim().endsWith(":") ? "    " : "");
+    }
 
-        commandField.setText("");
-        updateQueueLabel();
+    // Leave block entry
+    private void endBlock() {
+        pendingBlock.setLength(0);
+        promptLabel.setText(">>> ");
     }
 
     // Shows help information
@@ -180,41 +226,56 @@ public class CommandInputPanel extends JPanel {
                 "\n" +
                 "# PYTHON LOOPS\n" +
                 "for i in range(5): player.moveup()\n" +
+                "n = 3\n" +
+                "while n > 0:\n" +
+                "    player.moveup()\n" +
+                "    n -= 1\n" +
                 "\n" +
                 "# PYTHON CONDITIONS\n" +
                 "if x < 200: player.moveright()\n" +
                 "\n" +
+                "# SENSORS (checked when the line runs, after earlier moves finish)\n" +
+                "x, y, health, keys  - player position and counters\n" +
+                "blocked(UP) / blocked(DOWN) / blocked(LEFT) / blocked(RIGHT)  - wall or object next to you\n" +
+                "near_key()  - a key lies on or next to your tile\n" +
+                "while not blocked(RIGHT): player.moveright()\n" +
+                "\n" +
+                "# BLOCKS (end a line with ':', indent, empty line runs)\n" +
+                "for i in range(3):\n" +
+                "    for j in range(2):\n" +
+                "        player.moveright()\n" +
+                "    if i % 2 == 0:\n" +
+                "        player.moveup()\n" +
+                "    else:\n" +
+                "        player.movedown()\n" +
+                "\n" +
+                "# FUNCTIONS AND VARIABLES (whole numbers)\n" +
+                "def steps(n):\n" +
+                "    for k in range(n): player.moveleft()\n" +
+                "    return n * 64\n" +
+                "moved = steps(2)\n" +
+                "\n" +
                 "# DEBUGGING\n" +
                 "print (\"massage\")\n" +
-                "clear\n");
+                "clear  (or stop - also stops a running program)\n" +
+                "undo  (go back to before the last command)\n" +
+                "history  (list your last commands - they are kept in saves)\n");
     }
 
     // Clears command queue
     private void clearQueue() {
-        commandParser.parseCommand("clear");
-        updateQueueLabel();
+        endBlock(); // Also drop a half typed block
+        commandParser.stop(); // Also stops a running program
         appendOutput("🗑️ Command queue cleared.\n");
     }
 
-    // Appends text to output area
+    // Appends text to output area (shown on the next frame, keeps the last 100 lines)
     private void appendOutput(String text) {
-        outputArea.append(text + "\n");
-        outputArea.setCaretPosition(outputArea.getDocument().getLength());
-
-        // Limit output to last 100 lines
-        String[] lines = outputArea.getText().split("\n");
-        if (lines.length > 100) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = lines.length - 100; i < lines.length; i++) {
-                sb.append(lines[i]).append("\n");
-            }
-            outputArea.setText(sb.toString());
-        }
+        console.println(text);
     }
 
-    // Updates queue label with current size
-    public void updateQueueLabel() {
-        int queueSize = commandParser.getQueueSize();
+    // Updates queue label with the size published by the game thread
+    public void updateQueueLabel(int queueSize) {
         queueLabel.setText("Queue: " + queueSize + " command" + (queueSize != 1 ? "s" : ""));
 
         // Change color based on queue size
@@ -1,211 +1,244 @@
 package CodeQuest.Main;
 
-import java.util.*;
-import java.util.regex.*;
-
-// Parses and executes Python-like commands for player control
-public class CommandParser {
+import CodeQuest.Entity.Direction;
+import CodeQuest.Script.ScriptError;
+import CodeQuest.Script.ScriptLimits;
+import CodeQuest.Script.ScriptSandbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Compiles and runs Python-like programs for player control
+// Programs run on the script worker thread (CodeQuest.Script.ScriptSandbox) with step, time and
+// action limits. A move is posted to the game thread and the program is suspended until the adapter
+// has finished it, so the next statement sees where the player really is.
+// The functions and variables a program can use come from GameScriptHost; this class reads them from
+// the published frame and carries out moves through the game thread.
+public class CommandParser extends GameScriptHost {
+    public static final int COMMAND_DELAY = 300; // Default delay between queued actions in ms
+    public static final int MAX_HISTORY = 50; // Submitted programs remembered (and saved)
     public GamePanel gamePanel; // Reference to game panel
-    public CommandAdapter adapter; // Adapter that executes commands
-    private Map<String, Integer> variables; // Stores loop variables
-    
+    public CommandAdapter adapter; // Adapter that executes commands (game thread)
+    private final ScriptSandbox sandbox = new ScriptSandbox(ScriptLimits.DEFAULT); // Runs programs off the game thread and EDT
+    private final ArrayDeque<String> history = new ArrayDeque<>(); // Recently submitted programs, oldest first (guarded by itself)
+
     // Constructor initializes parser
     public CommandParser(GamePanel gamePanel) {
         this.gamePanel = gamePanel;
         this.adapter = new CommandAdapter(gamePanel);
-        this.variables = new HashMap<>();
     }
 
-    // Parses and executes command string
-    public boolean parseCommand(String command) {
-        try {
-            command = command.trim();
-            if (command.isEmpty()) return true;
+    // Runs a program (one line or an indented block) in the background (any thread)
+    // Errors are printed to the console and cost a heart
+    public void submit(String command) {
+        String trimmed = command.trim();
+        if (trimmed.isEmpty()) return;
 
-            // Handle clear/stop command
-            if (command.equals("clear") || command.equals("stop")) {
-                adapter.clearQueue();
-                return true;
-            }
+        // Handle clear/stop command
+        if (trimmed.equals("clear") || trimmed.equals("stop")) {
+            stop();
+            return;
+        }
+        if (trimmed.equals("undo")) {
+            undo();
+            return;
+        }
+        if (trimmed.equals("history")) {
+            printHistory();
+            return;
+        }
 
-            // Handle for loop
-            if (command.startsWith("for ")) {
-                return parseForLoop(command);
+        synchronized (history) {
+            if (history.size() == MAX_HISTORY) {
+                history.removeFirst();
             }
+            history.addLast(command);
+        }
 
-            // Handle if statement
-            if (command.startsWith("if ")) {
-                return parseIfStatement(command);
-            }
+        // The checkpoint is queued once the program compiled (a typo leaves nothing to undo), before anything it posts
+        sandbox.submit(command, this, () -> gamePanel.post(gamePanel::checkpoint), this::reportError);
+    }
 
-            // Handle multiple commands separated by ; or newline
-            if (command.contains("\n") || command.contains(";")) {
-                String[] lines = command.split("[;\n]");
-                boolean allValid = true;
-
-                for (String line : lines) {
-                    line = line.trim();
-                    if (!line.isEmpty()) {
-                        if (!parseCommand(line)) { // Recursively parse each command
-                            allValid = false;
-                        }
-                    }
-                }
+    // Copy of the command history, oldest first (any thread)
+    public List<String> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
 
-                if (!allValid) {
-                    dealDamageForError(); // Apply damage for error
+    // Replace the command history, e.g. from a save (any thread)
+    public void setHistory(List<String> commands) {
+        synchronized (history) {
+            history.clear();
+            for (String command : commands) {
+                if (history.size() == MAX_HISTORY) {
+                    history.removeFirst();
                 }
-
-                return allValid;
+                history.addLast(command);
             }
+        }
+    }
 
-            // Execute single command
-            boolean success = executeSingleCommand(command);
+    // List the remembered programs in the console
+    private void printHistory() {
+        if (gamePanel.console == null) return;
+        List<String> commands = getHistory();
+        if (commands.isEmpty()) {
+            gamePanel.console.println("No commands yet");
+        }
+        for (int i = 0; i < commands.size(); i++) {
+            gamePanel.console.println((i + 1) + ": " + commands.get(i).trim().replace("\n", "\n   "));
+        }
+    }
 
-            if (!success) {
-                dealDamageForError(); // Apply damage for error
+    // Put the world back to how it was before the last program was submitted (any thread)
+    public void undo() {
+        cancelPrograms();
+        gamePanel.post(() -> {
+            String result;
+            if (gamePanel.gameState != gamePanel.playState) {
+                result = "Undo only works while playing";
+            } else if (gamePanel.undo()) {
+                result = "Undid the last command";
+            } else {
+                result = "Nothing to undo";
             }
+            if (gamePanel.console != null) {
+                gamePanel.console.println(result);
+            }
+        });
+    }
 
-            return success;
+    // Stop running and waiting programs and empty the command queue (any thread)
+    public void stop() {
+        cancelPrograms();
+        gamePanel.post(adapter::clearQueue);
+    }
+
+    // Stop running and waiting programs; actions they already posted are dropped (any thread)
+    public void cancelPrograms() {
+        sandbox.cancelAll();
+    }
 
-        } catch (Exception e) {
-            dealDamageForError();
-            return false;
+    // Report a failed program (script worker thread)
+    private void reportError(ScriptError e) {
+        if (gamePanel.console != null) {
+            gamePanel.console.println(e.getMessage());
+            gamePanel.console.println("Type 'help' or click Help button for examples.\n");
         }
+        gamePanel.post(this::dealDamageForError); // Apply damage for error
     }
-    
-    // Applies damage to player when command has error
+
+    // Applies damage to player when command has error (game thread)
     private void dealDamageForError() {
         if (gamePanel.healthSystem != null && !gamePanel.healthSystem.isDead()) {
             boolean damageApplied = gamePanel.healthSystem.takeDamage(1);
 
             if (damageApplied && gamePanel.healthSystem.isDead()) {
-                gamePanel.gameState = gamePanel.gameOverState; // Game over if health depleted
+                gamePanel.setGameState(gamePanel.gameOverState); // Game over if health depleted
             }
         }
     }
 
     // Wrapper method for parsing
     public void parse(String command) {
-        parseCommand(command);
+        submit(command);
     }
 
-    // Parses Python-style for loop
-    private boolean parseForLoop(String line) {
-        Pattern pattern = Pattern.compile("for\\s+(\\w+)\\s+in\\s+range\\s*\\(\\s*(\\d+)\\s*\\)\\s*:\\s*(.+)");
-        Matcher matcher = pattern.matcher(line);
-
-        if (matcher.matches()) {
-            String varName = matcher.group(1); // Loop variable name
-            int count = Integer.parseInt(matcher.group(2)); // Loop count
-            String body = matcher.group(3).trim(); // Loop body
-
-            // Execute loop body count times
-            for (int i = 0; i < count; i++) {
-                variables.put(varName, i); // Set loop variable
-                executeSingleCommand(body);
-            }
-            return true;
-        }
+    // ========== GameScriptHost (called on the script worker thread) ==========
 
-        return false;
+    // Read from the published frame, never from the fields the game thread is changing
+    @Override
+    protected int playerX() {
+        return gamePanel.frame.playerX;
     }
 
-    // Parses Python-style if statement
-    private boolean parseIfStatement(String line) {
-        Pattern pattern = Pattern.compile("if\\s+(.+?)\\s*:\\s*(.+)");
-        Matcher matcher = pattern.matcher(line);
+    @Override
+    protected int playerY() {
+        return gamePanel.frame.playerY;
+    }
 
-        if (matcher.matches()) {
-            String condition = matcher.group(1).trim(); // Condition
-            String command = matcher.group(2).trim(); // Command to execute
+    @Override
+    protected int health() {
+        return gamePanel.frame.health;
+    }
 
-            if (evaluateCondition(condition)) { // Check condition
-                executeSingleCommand(command);
-            }
-            return true;
-        }
+    @Override
+    protected int keys() {
+        return gamePanel.frame.keys;
+    }
 
-        return false;
+    @Override
+    protected boolean isKeyNear() {
+        FrameSnapshot frame = gamePanel.frame;
+        return frame.sensors.isKeyNear(playerCol(frame), playerRow(frame));
     }
 
-    // Evaluates conditional expression
-    private boolean evaluateCondition(String condition) {
-        Pattern pattern = Pattern.compile("(\\w+)\\s*([<>!=]+)\\s*(\\d+)");
-        Matcher matcher = pattern.matcher(condition);
+    @Override
+    protected boolean isBlocked(Direction direction) {
+        FrameSnapshot frame = gamePanel.frame;
+        return frame.sensors.isBlocked(playerCol(frame) + direction.dx, playerRow(frame) + direction.dy);
+    }
 
-        if (matcher.matches()) {
-            String varName = matcher.group(1); // Variable name
-            String operator = matcher.group(2); // Comparison operator
-            int value = Integer.parseInt(matcher.group(3)); // Comparison value
+    // Tile the centre of the player's tile-sized sprite is on
+    private int playerCol(FrameSnapshot frame) {
+        return (frame.playerX + gamePanel.gameTileSize / 2) / gamePanel.gameTileSize;
+    }
 
-            int varValue = getVariableValue(varName);
+    private int playerRow(FrameSnapshot frame) {
+        return (frame.playerY + gamePanel.gameTileSize / 2) / gamePanel.gameTileSize;
+    }
 
-            // Evaluate comparison
-            switch (operator) {
-                case "<": return varValue < value;
-                case ">": return varValue > value;
-                case "==": return varValue == value;
-                case "!=": return varValue != value;
-                case "<=": return varValue <= value;
-                case ">=": return varValue >= value;
+    // Queue a move and suspend the program until it is over - the worker thread is the program's
+    // coroutine, resumed once the frame showing the finished move has been published
+    @Override
+    protected void move(Direction direction) {
+        long run = sandbox.currentRun();
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        gamePanel.post(() -> {
+            if (sandbox.isCancelled(run)) {
+                finished.complete(null);
+                return;
+            }
+            adapter.executeMove(direction, () -> gamePanel.runAfterPublish(() -> finished.complete(null)));
+        });
+        // Wake up now and then to notice clear/stop (a cleared move may never finish)
+        while (!sandbox.isCancelled(run)) {
+            try {
+                finished.get(50, TimeUnit.MILLISECONDS);
+                break;
+            } catch (TimeoutException e) {
+                // Still moving
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                break;
             }
         }
-        return false;
     }
 
-    // Gets value of variable (loop var or built-in)
-    private int getVariableValue(String varName) {
-        if (variables.containsKey(varName)) {
-            return variables.get(varName);
-        }
-
-        // Built-in variables
-        switch (varName) {
-            case "x": return gamePanel.player.worldX;
-            case "y": return gamePanel.player.worldY;
-            case "health": return gamePanel.healthSystem != null ?
-                          gamePanel.healthSystem.getCurrentHealth() : 0;
-            default: return 0;
-        }
+    // Print command
+    @Override
+    public void print(String text) {
+        postAction(() -> adapter.executePrint(text));
     }
-    
-    // Executes a single command
-    private boolean executeSingleCommand(String cmd) {
-        cmd = cmd.trim();
-
-        // Print command
-        if (cmd.startsWith("print")) {
-            String message = cmd.substring(6).trim();
-            // Remove parentheses: print("hello") -> "hello"
-            if (message.startsWith("(") && message.endsWith(")")) {
-                message = message.substring(1, message.length() - 1).trim();
-            }
-            // Remove quotes: "hello" -> hello
-            message = message.replaceAll("^['\"]|['\"]$", "");
-            adapter.executePrint(message);
-            return true;
-        }
 
-        // Method-style commands
-        switch (cmd) {
-            case "player.moveup()":
-                adapter.executeMoveUp();
-                return true;
-            case "player.movedown()":
-                adapter.executeMoveDown();
-                return true;
-            case "player.moveleft()":
-                adapter.executeMoveLeft();
-                return true;
-            case "player.moveright()":
-                adapter.executeMoveRight();
-                return true;
-            default:
-                return false;
-        }
+    // Queue an action on the game thread, unless its program is cancelled before it gets there
+    private void postAction(Runnable action) {
+        long run = sandbox.currentRun();
+        gamePanel.post(() -> {
+            if (!sandbox.isCancelled(run)) {
+                action.run();
+            }
+        });
     }
-    
+
     // Returns number of queued commands
     public int getQueueSize() {
         return adapter.getQueueSize();
@@ -0,0 +1,91 @@
+package CodeQuest.Main;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Output model for the command console - keeps the last MAX_LINES lines of a text area
+// Lines can be printed from any thread. They are collected in a queue and written to the
+// document in one batch, at most once per game frame. Old lines are removed from the head
+// of the document using a ring buffer of line lengths, so the text is never rebuilt.
+public class ConsoleOutput {
+    public static final int MAX_LINES = 100; // Lines kept in the console
+
+    private final JTextArea area; // Text area showing the output
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>(); // Text not yet in the document
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false); // True while a flush is queued on the EDT
+
+    // Ring buffer of line lengths (including the newline) for the lines in the document (EDT only)
+    private final int[] lineLengths = new int[MAX_LINES];
+    private int firstLine = 0; // Ring index of the oldest line
+    private int lineCount = 0; // Complete lines in the document
+    private int openLineLength = 0; // Characters of a line without its newline yet
+    private int overflow = 0; // Characters of lines pushed out of the ring, not yet removed
+
+    public ConsoleOutput(JTextArea area) {
+        this.area = area;
+    }
+
+    // Queue a line of output (any thread)
+    public void println(String text) {
+        pending.offer(text + "\n");
+    }
+
+    // Schedule one EDT update if output is waiting (called by the game loop once per frame)
+    public void flushOncePerFrame() {
+        if (!pending.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    // Write all waiting output to the document and drop lines beyond MAX_LINES (EDT)
+    public void flush() {
+        flushScheduled.set(false);
+        StringBuilder batch = new StringBuilder();
+        String text;
+        while ((text = pending.poll()) != null) {
+            batch.append(text);
+            recordLines(text);
+        }
+        if (batch.length() == 0) {
+            return;
+        }
+
+        Document document = area.getDocument();
+        try {
+            // Lines pushed out of the ring are removed from the head of the document; if a batch
+            // pushed out more than the document holds, the rest is cut from the batch before inserting
+            int removeFromDocument = Math.min(overflow, document.getLength());
+            int removeFromBatch = overflow - removeFromDocument;
+            overflow = 0;
+            if (removeFromDocument > 0) {
+                document.remove(0, removeFromDocument);
+            }
+            document.insertString(document.getLength(), batch.substring(removeFromBatch), null);
+        } catch (BadLocationException e) {
+            System.out.println("Console output error: " + e.getMessage());
+        }
+        area.setCaretPosition(document.getLength()); // Scroll to the newest line
+    }
+
+    // Add the lines in a piece of text to the ring buffer
+    private void recordLines(String text) {
+        int start = 0;
+        int newline;
+        while ((newline = text.indexOf('\n', start)) != -1) {
+            if (lineCount == MAX_LINES) {
+                // Ring is full - the oldest line has to leave the document
+                overflow += lineLengths[firstLine];
+                firstLine = (firstLine + 1) % MAX_LINES;
+                lineCount--;
+            }
+            lineLengths[(firstLine + lineCount) % MAX_LINES] = openLineLength + newline - start + 1;
+            lineCount++;
+            openLineLength = 0;
+            start = newline + 1;
+        }
+        openLineLength += text.length() - start;
+    }
+}
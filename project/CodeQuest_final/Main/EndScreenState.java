@@ -0,0 +1,64 @@
+package CodeQuest.Main;
+
+import java.awt.event.KeyEvent;
+
+// Shared behaviour of the game over and win screens: a two-option menu (Restart, Main Menu)
+// navigated with the keyboard, plus R and ESC shortcuts
+public abstract class EndScreenState implements GameState {
+    protected final GamePanel gamePanel; // Reference to game panel
+    protected volatile int selectedOption = 0; // 0 = Restart, 1 = Main Menu (changed on the EDT)
+
+    protected EndScreenState(GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+    }
+
+    @Override
+    public void enter() {
+        selectedOption = 0; // Every run starts on Restart
+    }
+
+    @Override
+    public boolean keyPressed(int code) {
+        // Navigate up or down, wrapping around
+        if (code == KeyEvent.VK_UP || code == KeyEvent.VK_W || code == KeyEvent.VK_DOWN || code == KeyEvent.VK_S) {
+            selectedOption = 1 - selectedOption;
+            if (gamePanel.soundManager != null) {
+                gamePanel.soundManager.playNavigationSound(); // Play navigation sound
+            }
+            gamePanel.repaint(); // Update display
+            return true;
+        }
+        // Select option
+        if (code == KeyEvent.VK_ENTER || code == KeyEvent.VK_SPACE) {
+            if (selectedOption == 0) {
+                restart(); // Restart game
+            } else {
+                returnToMenu();
+            }
+            return true;
+        }
+        // Shortcuts
+        if (code == KeyEvent.VK_R) {
+            restart(); // Restart on R key
+            return true;
+        }
+        if (code == KeyEvent.VK_ESCAPE) {
+            returnToMenu();
+            return true;
+        }
+        return true; // Ignore other keys on this screen
+    }
+
+    // Play again - the current level by default
+    protected void restart() {
+        gamePanel.postRestart();
+    }
+
+    // Go to the main menu with full health, so the next game does not end at once
+    protected void returnToMenu() {
+        gamePanel.post(() -> {
+            gamePanel.setGameState(gamePanel.menuState);
+            gamePanel.healthSystem.resetHealth();
+        });
+    }
+}
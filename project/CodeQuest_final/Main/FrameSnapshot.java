@@ -0,0 +1,34 @@
+package CodeQuest.Main;
+
+// Immutable copy of the world values the UI needs, published by the game thread once per tick
+// HUD and Swing code read this instead of the live fields the game thread is mutating
+// (world sprites are published separately as a RenderSnapshot)
+public final class FrameSnapshot {
+    public final int gameState; // Game state at the end of the tick
+    public final int health; // Current health
+    public final int maxHealth; // Maximum health
+    public final int keys; // Keys collected
+    public final int remainingChests; // Chests still closed
+    public final int playerX; // Player world position (read by scripts on the worker thread)
+    public final int playerY;
+    public final SensorGrid sensors; // Tiles and objects for script sensors (same instance until objects change)
+    public final int queueSize; // Commands waiting in the command queue
+    public final String message; // Message bar text, null when hidden
+    public final int[] hudVersions; // Change count of each HUD widget (see GameUI.getVersions)
+
+    public FrameSnapshot(int gameState, int health, int maxHealth,
+                         int keys, int remainingChests, int playerX, int playerY, SensorGrid sensors,
+                         int queueSize, String message, int[] hudVersions) {
+        this.gameState = gameState;
+        this.health = health;
+        this.maxHealth = maxHealth;
+        this.keys = keys;
+        this.remainingChests = remainingChests;
+        this.playerX = playerX;
+        this.playerY = playerY;
+        this.sensors = sensors;
+        this.queueSize = queueSize;
+        this.message = message;
+        this.hudVersions = hudVersions;
+    }
+}
@@ -0,0 +1,50 @@
+package CodeQuest.Main;
+
+// Measures the time between presented frames and prints mean, standard deviation and worst case
+// Used to compare frame pacing of the repaint() and active rendering modes (--frame-stats)
+public class FrameTimeStats {
+    private static final long REPORT_INTERVAL = 5_000_000_000L; // Print every 5 seconds
+
+    private final String label; // Rendering mode shown in the report
+    private long lastFrameTime = 0; // When the previous frame was presented
+    private long periodStart = 0; // Start of the current report period
+
+    // Running statistics for the current period (Welford's algorithm, no per-frame storage)
+    private int frames = 0;
+    private double mean = 0; // Mean frame time in ms
+    private double m2 = 0; // Sum of squared differences from the mean
+    private double max = 0; // Longest frame time in ms
+
+    public FrameTimeStats(String label) {
+        this.label = label;
+    }
+
+    // Record that a frame was just presented
+    public void frameShown() {
+        long now = System.nanoTime();
+        if (lastFrameTime == 0) {
+            lastFrameTime = now;
+            periodStart = now;
+            return;
+        }
+        double millis = (now - lastFrameTime) / 1_000_000.0;
+        lastFrameTime = now;
+
+        frames++;
+        double delta = millis - mean;
+        mean += delta / frames;
+        m2 += delta * (millis - mean);
+        max = Math.max(max, millis);
+
+        if (now - periodStart >= REPORT_INTERVAL) {
+            double stdDev = frames > 1 ? Math.sqrt(m2 / (frames - 1)) : 0;
+            System.out.println(String.format("Frame times [%s]: %d frames, mean %.2fms, std dev %.2fms, max %.2fms",
+                    label, frames, mean, stdDev, max));
+            frames = 0;
+            mean = 0;
+            m2 = 0;
+            max = 0;
+            periodStart = now;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package CodeQuest.Main;
+
+import java.awt.Graphics2D;
+
+// Game over screen - shown when the player runs out of health
+public class GameOverState extends EndScreenState {
+
+    public GameOverState(GamePanel gamePanel) {
+        super(gamePanel);
+    }
+
+    @Override
+    public void render(Graphics2D g2, FrameSnapshot frame) {
+        gamePanel.healthSystem.drawGameOver(g2, gamePanel.screenWidth, gamePanel.screenHeight, selectedOption);
+    }
+
+    // Restart and Main Menu buttons
+    @Override
+    public void mouseClicked(int mx, int my) {
+        int buttonWidth = 150;
+        int buttonHeight = 50;
+        int restartX = gamePanel.screenWidth / 2 - buttonWidth / 2;
+        int restartY = gamePanel.screenHeight / 2 + 100;
+        // Check restart button click
+        if (mx >= restartX && mx <= restartX + buttonWidth && my >= restartY && my <= restartY + buttonHeight) {
+            gamePanel.postRestart();
+        }
+        // Check main menu button click
+        int menuX = gamePanel.screenWidth / 2 - buttonWidth / 2;
+        int menuY = restartY + buttonHeight + 20;
+        if (mx >= menuX && mx <= menuX + buttonWidth && my >= menuY && my <= menuY + buttonHeight) {
+            returnToMenu();
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package CodeQuest.Main;
 
 import CodeQuest.Entity.ChestSystem;
+import CodeQuest.Entity.EntityState;
 import CodeQuest.Entity.HealthSystem;
 import CodeQuest.Entity.KeySystem;
 import CodeQuest.Entity.MessageSystem;
-import CodeQuest.Entity.NPC;
+import CodeQuest.Entity.NPCCrowd;
 import CodeQuest.Entity.NPCManager;
 import CodeQuest.Entity.Player;
 import CodeQuest.Tiles.MapObject;
@@ -13,24 +14,37 @@ import CodeQuest.Tiles.TileManager;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
 
 // Main game panel that handles game loop and rendering
 public class GamePanel extends JPanel implements Runnable {
 
     // Screen settings
-    final int gameTiles = 32; // Base tile size
-    final int scale = 2; // Scale factor
-    public final int gameTileSize = gameTiles * scale; // Scaled tile size (64px)
+    public final int gameTiles = 32; // Base tile size (native sprite resolution)
+    public final int scale = 2; // World units per native pixel
+    public static final int TILE_SIZE = 32 * 2; // Scaled tile size (64px), base tile size times scale
+    public final int gameTileSize = TILE_SIZE;
     public final int maxScreenCol = 16; // Screen columns
     public final int maxScreenRow = 10; // Screen rows
     public final int screenWidth = gameTileSize * maxScreenCol; // Screen width in pixels
     public final int screenHeight = gameTileSize * maxScreenRow; // Screen height in pixels
-    int fps = 60; // Target frames per second
+    public static final int FPS = 60; // Target frames (game ticks) per second
+    int fps = FPS; // Frames per second the loop runs at
     
     // Game components
     public KeyHandler keyH = new KeyHandler(this); // Keyboard input handler
@@ -46,23 +60,52 @@ public class GamePanel extends JPanel implements Runnable {
     public KeySystem keySystem = new KeySystem(); // Key collection system
     public ChestSystem chestSystem = new ChestSystem(); // Chest counter system
     public MessageSystem messageSystem; // NPC message display system
-    public GameUI gameUI; // UI observer for health, keys, and chests
+    public GameUI gameUI; // HUD for health, keys, and chests
 
     // World settings
-    public final int maxWorldCol = 50; // World width in tiles
-    public final int maxWorldRow = 50; // World height in tiles
+    public static final int MAX_WORLD_COL = 50; // World width in tiles
+    public static final int MAX_WORLD_ROW = 50; // World height in tiles
+    public final int maxWorldCol = MAX_WORLD_COL;
+    public final int maxWorldRow = MAX_WORLD_ROW;
 
     public CommandParser commandParser; // Command parser for Python commands
     public SoundManager soundManager; // Sound manager for music and effects
-
-    // Win screen menu selection
-    public int selectedWinOption = 0; // 0 = Restart, 1 = Main Menu
-
-    // Game over screen menu selection
-    public int selectedGameOverOption = 0; // 0 = Restart, 1 = Main Menu
+    public ConsoleOutput console; // Command console output, flushed to the EDT once per frame (null until the panel exists)
+    public SaveManager saveManager; // Save slots, written and read in the background
+    public LevelManager levelManager; // Course of levels, the next one preloaded in the background
+    public final Random random = new Random(); // World randomness (NPC wandering) - game thread only, reseeded on save
+
+    // Concurrency model: only the game thread mutates world state.
+    // UI threads (EDT, Swing timers) post intents to the inbox, and read the published FrameSnapshot.
+    private final ConcurrentLinkedQueue<Runnable> inbox = new ConcurrentLinkedQueue<>(); // Lock-free MPSC queue
+    private final List<GameStateListener> stateListeners = new CopyOnWriteArrayList<>(); // Notified on state transitions
+    private final List<IntConsumer> queueSizeListeners = new CopyOnWriteArrayList<>(); // Notified when the command queue size changes
+    private int publishedQueueSize = -1; // Queue size listeners were last told about
+    public volatile FrameSnapshot frame; // Latest snapshot published by the game thread
+    private final RenderSnapshotBuffer renderBuffer = new RenderSnapshotBuffer(); // World sprites published by the game thread
+    private long tickCount = 0; // Ticks simulated since start
+    private final List<Runnable> afterPublish = new ArrayList<>(); // Run once the current tick is published (game thread only)
+    private SensorGrid sensors; // Latest sensor grid, rebuilt when sensorsDirty is set
+    private boolean sensorsDirty = true; // Objects changed since the grid was built (game thread only)
+    private WorldSnapshot.ObjectChange objectChanges = null; // Keys collected and chests opened, newest first (game thread only)
+    private WorldSnapshot initialWorld; // State when the current level started, restored by restartGame
+    private static final int MAX_UNDO = 20; // Commands that can be undone
+    private final ArrayDeque<WorldSnapshot> undoHistory = new ArrayDeque<>(); // World before each recent command, newest first (game thread only)
+    public volatile boolean interpolateRendering = false; // Blend between the last two ticks when render and tick rates differ
+
+    // Rendering mode: by default the game thread calls repaint() and Swing paints on the EDT.
+    // With active rendering a heavyweight canvas is drawn directly from the game thread instead.
+    private Canvas canvas; // Active rendering target, null in repaint mode
+    private BufferStrategy bufferStrategy; // Canvas buffers (game thread only)
+    FrameTimeStats frameStats; // Frame pacing statistics, null unless enabled
+    private int bufferWidth, bufferHeight; // Canvas size the buffer strategy was created for
+
+    // Resolution independence: the world is drawn at native sprite resolution (32px tiles) into this buffer,
+    // then scaled to the window once per frame by the largest integer factor that fits
+    private final BufferedImage worldBuffer = new BufferedImage(screenWidth / scale, screenHeight / scale, BufferedImage.TYPE_INT_RGB);
 
     // Game states
-    public int gameState = 1; // Current game state
+    public volatile int gameState = 0; // State on top of the stack (changed by the state methods on the game thread only)
     public final int titleState = 0; // Title screen
     public final int menuState = 1; // Main menu
     public final int playState = 2; // Playing game
@@ -70,6 +113,8 @@ public class GamePanel extends JPanel implements Runnable {
     public final int optionsState = 4; // Options menu
     public final int gameOverState = 5; // Game over
     public final int winState = 6; // Victory screen
+    private final GameState[] states = new GameState[7]; // Handler of each state, indexed by the constants above
+    private final ArrayDeque<Integer> stateStack = new ArrayDeque<>(); // Active states, top first (game thread only)
 
     // Constructor initializes game panel
     public GamePanel() {
@@ -80,39 +125,26 @@ public class GamePanel extends JPanel implements Runnable {
         this.addKeyListener(keyH);
         this.setFocusable(true);
 
-        // Handle game over screen clicks
+        // Pass clicks to the current state (game over buttons)
         this.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if (gameState == gameOverState) {
-                    int mx = e.getX();
-                    int my = e.getY();
-                    int buttonWidth = 150;
-                    int buttonHeight = 50;
-                    int restartX = screenWidth / 2 - buttonWidth / 2;
-                    int restartY = screenHeight / 2 + 100;
-                    // Check restart button click
-                    if (mx >= restartX && mx <= restartX + buttonWidth && my >= restartY && my <= restartY + buttonHeight) {
-                        restartGame();
-                    }
-                    // Check main menu button click
-                    int menuX = screenWidth / 2 - buttonWidth / 2;
-                    int menuY = restartY + buttonHeight + 20;
-                    if (mx >= menuX && mx <= menuX + buttonWidth && my >= menuY && my <= menuY + buttonHeight) {
-                        gameState = menuState;
-                    }
-                }
+                Point p = toScreenCoordinates(e.getX(), e.getY()); // Window may be scaled
+                getState(gameState).mouseClicked(p.x, p.y);
             }
         });
         player.setDefault();
 
         // Initialize command parser
         commandParser = new CommandParser(this);
-        commandParser.setCommandDelay(300);
+        commandParser.setCommandDelay(CommandParser.COMMAND_DELAY);
 
         // Initialize sound manager
         soundManager = new SoundManager();
 
+        // Save slots live in the user's home directory
+        saveManager = new SaveManager(this, SaveManager.defaultDirectory());
+
         // Set health display position
         healthSystem.setScreenPosition(20, 20);
 
@@ -125,17 +157,214 @@ public class GamePanel extends JPanel implements Runnable {
         // Initialize message system
         messageSystem = new MessageSystem(screenWidth, screenHeight);
 
-        // Initialize GameUI and register it with the systems
+        // Initialize GameUI - its widgets register themselves with the systems they display
         gameUI = new GameUI(healthSystem, keySystem, chestSystem);
-        healthSystem.registerObserver(gameUI);
-        keySystem.registerObserver(gameUI);
-        chestSystem.registerObserver(gameUI);
+
+        // Create the state handlers - the Swing menus share one idle state
+        GameState menu = new MenuState();
+        states[titleState] = menu;
+        states[menuState] = menu;
+        states[playState] = new PlayState(this);
+        states[pauseState] = new PauseState(this);
+        states[optionsState] = menu;
+        states[gameOverState] = new GameOverState(this);
+        states[winState] = new WinState(this);
+
+        // Load the first level (the next one is read in the background while it is played)
+        levelManager = new LevelManager(this);
+        levelManager.startCourse();
 
         // Start at title screen
+        stateStack.push(titleState);
         this.gameState = titleState;
+        publishFrame();
         this.setVisible(false);
     }
 
+    // Queue an intent to run on the game thread at the start of the next tick (safe from any thread)
+    public void post(Runnable intent) {
+        inbox.offer(intent);
+    }
+
+    // Request a game state change from a UI thread
+    public void postGameState(int state) {
+        post(() -> setGameState(state));
+    }
+
+    // Switch to a state (game thread)
+    // If the state is already on the stack the states above it are popped (resume play from pause),
+    // otherwise the whole stack is replaced by it
+    public void setGameState(int state) {
+        if (state == gameState) {
+            return;
+        }
+        int previous = gameState;
+        if (stateStack.contains(state)) {
+            while (stateStack.peek() != state) {
+                states[stateStack.pop()].exit();
+            }
+        } else {
+            while (!stateStack.isEmpty()) {
+                states[stateStack.pop()].exit();
+            }
+            stateStack.push(state);
+            states[state].enter();
+        }
+        announceState(previous);
+    }
+
+    // Put a state over the current one, which stays on the stack untouched (game thread)
+    public void pushGameState(int state) {
+        if (stateStack.contains(state)) {
+            setGameState(state); // A state is never on the stack twice
+            return;
+        }
+        int previous = gameState;
+        stateStack.push(state);
+        states[state].enter();
+        announceState(previous);
+    }
+
+    // Return to the state below the current one, or to the main menu if there is none (game thread)
+    public void popGameState() {
+        if (stateStack.size() <= 1) {
+            setGameState(menuState);
+            return;
+        }
+        int previous = gameState;
+        states[stateStack.pop()].exit();
+        announceState(previous);
+    }
+
+    // Publish the new top of the stack and run the listener hooks
+    private void announceState(int previous) {
+        for (GameStateListener listener : stateListeners) {
+            listener.onExit(previous);
+        }
+        gameState = stateStack.peek();
+        for (GameStateListener listener : stateListeners) {
+            listener.onEnter(gameState);
+        }
+    }
+
+    // Handler of a state - used by the EDT for input on the current state
+    public GameState getState(int state) {
+        return states[state];
+    }
+
+    // Register for game state transitions (hooks run on the game thread)
+    public void addStateListener(GameStateListener listener) {
+        stateListeners.add(listener);
+    }
+
+    // Register for command queue size changes (called on the game thread with the new size)
+    public void addQueueSizeListener(IntConsumer listener) {
+        queueSizeListeners.add(listener);
+    }
+
+    // Request a restart from a UI thread
+    public void postRestart() {
+        post(this::restartGame);
+    }
+
+    // Apply all posted intents (game thread)
+    private void processIntents() {
+        Runnable intent;
+        while ((intent = inbox.poll()) != null) {
+            intent.run();
+        }
+    }
+
+    // Run code after this tick's frame is published, so it sees the tick's results (game thread)
+    public void runAfterPublish(Runnable task) {
+        afterPublish.add(task);
+    }
+
+    // Publish an immutable copy of the values the UI reads (game thread)
+    private void publishFrame() {
+        if (sensorsDirty) {
+            sensors = SensorGrid.build(this);
+            sensorsDirty = false;
+        }
+        if (console != null) {
+            console.flushOncePerFrame(); // Batch this frame's console output into one EDT update
+        }
+        frame = new FrameSnapshot(
+                gameState,
+                healthSystem.getCurrentHealth(),
+                healthSystem.getMaxHealth(),
+                keySystem.getCurrentKeys(),
+                chestSystem.getRemainingChests(),
+                player.worldX,
+                player.worldY,
+                sensors,
+                commandParser.getQueueSize(),
+                messageSystem.getVisibleMessage(),
+                gameUI.getVersions()
+        );
+        if (frame.queueSize != publishedQueueSize) {
+            publishedQueueSize = frame.queueSize;
+            for (IntConsumer listener : queueSizeListeners) {
+                listener.accept(publishedQueueSize);
+            }
+        }
+        if (!afterPublish.isEmpty()) {
+            for (Runnable task : afterPublish) {
+                task.run();
+            }
+            afterPublish.clear();
+        }
+    }
+
+    // Copy positions, sprites and sort keys of everything on screen into a pooled render snapshot (game thread)
+    void publishRenderSnapshot() {
+        RenderSnapshot snapshot = renderBuffer.beginWrite();
+        snapshot.begin(++tickCount, System.nanoTime(), player.worldX, player.worldY);
+
+        List<MapObject> objects = objM.objects;
+        for (int i = 0; i < objects.size(); i++) {
+            MapObject obj = objects.get(i);
+            if (isVisible(obj.worldX, obj.worldY, gameTileSize * 3)) {
+                obj.addTo(snapshot, 1 + i);
+            }
+        }
+
+        int margin = gameTileSize * 3; // Same test as isVisible, done per tile row by the scenery
+        objM.scenery.collectVisible(snapshot, player.worldX - player.screenX - margin, player.worldY - player.screenY - margin,
+                player.worldX + player.screenX + margin, player.worldY + player.screenY + margin, 1 + objects.size());
+
+        player.addTo(snapshot, RenderSnapshot.PLAYER_ID);
+
+        npcM.collectVisible(snapshot, gameTileSize * 4, 1 + objects.size() + objM.scenery.count);
+
+        snapshot.sort();
+        renderBuffer.publish(snapshot);
+    }
+
+    // Switch to active rendering - call before the window is shown
+    void enableActiveRendering() {
+        canvas = new Canvas();
+        canvas.setBounds(0, 0, screenWidth, screenHeight);
+        canvas.setIgnoreRepaint(true); // Only the game thread draws it
+        canvas.setFocusable(false); // Keyboard focus stays on the panel and menus
+        for (MouseListener listener : getMouseListeners()) {
+            canvas.addMouseListener(listener); // Game over clicks land on the canvas now
+        }
+        add(canvas);
+        // Keep the canvas covering the panel when the window is resized
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                canvas.setBounds(0, 0, getWidth(), getHeight());
+            }
+        });
+    }
+
+    // Print frame time statistics every few seconds
+    void enableFrameStats() {
+        frameStats = new FrameTimeStats(canvas != null ? "active" : "repaint");
+    }
+
     // Starts the game loop thread
     void startGameThread() {
         gameThread = new Thread(this);
@@ -166,7 +395,11 @@ public class GamePanel extends JPanel implements Runnable {
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
-                repaint();
+                if (canvas != null) {
+                    renderActive();
+                } else {
+                    repaint();
+                }
                 deltaTime--;
                 frames++;
             }
@@ -180,238 +413,369 @@ public class GamePanel extends JPanel implements Runnable {
 
     // Updates game state
     public void update() throws InterruptedException {
-        if (gameState == playState) {
-            player.update(); // Update player
-            npcM.update(); // Update NPCs
-            objM.update(); // Update objects
-
-            // Check for key collection
-            Rectangle playerRect = new Rectangle(player.worldX + player.solidArea.x, player.worldY + player.solidArea.y, player.solidArea.width, player.solidArea.height);
-            for (MapObject obj : objM.objects) {
-                if (obj.name.equals("key") && !obj.collected) {
-                    Rectangle objRect = new Rectangle(obj.worldX + obj.solidArea.x, obj.worldY + obj.solidArea.y, obj.solidArea.width, obj.solidArea.height);
-                    if (playerRect.intersects(objRect)) {
-                        obj.collected = true; // Collect key
-                        player.keys++; // Increment player key count
-                        keySystem.addKey(); // Add key to visual display
-                    }
-                }
-                // Check for chest opening (check proximity, not intersection, since chests block movement)
-                if (obj.name.startsWith("chest") && !obj.opened && keySystem.getCurrentKeys() > 0) {
-                    // Calculate distance between player center and chest center
-                    int playerCenterX = player.worldX + player.solidArea.x + player.solidArea.width / 2;
-                    int playerCenterY = player.worldY + player.solidArea.y + player.solidArea.height / 2;
-                    int chestCenterX = obj.worldX + gameTileSize / 2;
-                    int chestCenterY = obj.worldY + gameTileSize / 2;
-
-                    int distance = (int) Math.sqrt(Math.pow(playerCenterX - chestCenterX, 2) + Math.pow(playerCenterY - chestCenterY, 2));
-
-                    // Open chest if player is within 1.5 tiles distance
-                    if (distance < gameTileSize ) {
-                        obj.opened = true; // Open chest
-                        player.keys--; // Decrement key count
-                        keySystem.resetKeys(); // Reset visual display
-                        // Re-add remaining keys to visual display
-                        for (int i = 0; i < player.keys; i++) {
-                            keySystem.addKey();
-                        }
-                        obj.collision = false; // Remove collision so player can walk through
-                        chestSystem.openChest(); // Decrement chest counter
-
-                    }
+        processIntents(); // Apply input from UI threads first
+        states[stateStack.peek()].update(); // Only the top state runs - menus and pause simulate nothing
+        publishFrame();
+    }
+
+    // Advances the world by one tick (game thread)
+    void updateWorld() {
+        player.update(); // Update player
+        npcM.update(); // Update NPCs
+        objM.update(); // Update objects
+
+        // Check for key collection
+        Rectangle playerRect = new Rectangle(player.worldX + player.solidArea.x, player.worldY + player.solidArea.y, player.solidArea.width, player.solidArea.height);
+        List<MapObject> objects = objM.objects;
+        for (int i = 0; i < objects.size(); i++) {
+            MapObject obj = objects.get(i);
+            if (obj.isKey() && !obj.collected) {
+                Rectangle objRect = new Rectangle(obj.worldX + obj.type.solidX, obj.worldY + obj.type.solidY, obj.type.solidWidth, obj.type.solidHeight);
+                if (playerRect.intersects(objRect)) {
+                    changeObject(i); // Collect key
+                    player.keys++; // Increment player key count
+                    keySystem.addKey(); // Add key to visual display
                 }
             }
+            // Check for chest opening (check proximity, not intersection, since chests block movement)
+            if (obj.isChest() && !obj.opened && keySystem.getCurrentKeys() > 0) {
+                // Calculate distance between player center and chest center
+                int playerCenterX = player.worldX + player.solidArea.x + player.solidArea.width / 2;
+                int playerCenterY = player.worldY + player.solidArea.y + player.solidArea.height / 2;
+                int chestCenterX = obj.worldX + gameTileSize / 2;
+                int chestCenterY = obj.worldY + gameTileSize / 2;
+
+                int distance = (int) Math.sqrt(Math.pow(playerCenterX - chestCenterX, 2) + Math.pow(playerCenterY - chestCenterY, 2));
+
+                // Open chest if player is within 1.5 tiles distance
+                if (distance < gameTileSize ) {
+                    changeObject(i); // Open chest, the player can walk through it now
+                    player.keys--; // Decrement key count
+                    keySystem.setKeys(player.keys); // Update visual display
+                    chestSystem.openChest(); // Decrement chest counter
 
-            // Check for nearby NPCs to show dialogue
-            boolean nearNPC = false;
-            for (NPC npc : npcM.npcs) {
-                if (npc.hasDialogue) {
-                    // Calculate distance to NPC
-                    int playerCenterX = player.worldX + player.solidArea.x + player.solidArea.width / 2;
-                    int playerCenterY = player.worldY + player.solidArea.y + player.solidArea.height / 2;
-                    int npcCenterX = npc.worldX + gameTileSize / 2;
-                    int npcCenterY = npc.worldY + gameTileSize / 2;
-
-                    int distance = (int) Math.sqrt(Math.pow(playerCenterX - npcCenterX, 2) + Math.pow(playerCenterY - npcCenterY, 2));
-
-                    // Show message if player is within 2 tiles of NPC
-                    if (distance < gameTileSize * 1.5) {
-                        messageSystem.showMessage(npc.dialogue);
-                        nearNPC = true;
-                        break; // Show only one message at a time
-                    }
                 }
             }
-            // Hide message if not near any NPC
-            if (!nearNPC) {
-                messageSystem.hideMessage();
-            }
+        }
 
-            // Update command adapter
-            if (commandParser != null && commandParser.adapter != null) {
-                commandParser.adapter.update();
+        // Check for nearby NPCs to show dialogue
+        boolean nearNPC = false;
+        NPCCrowd crowd = npcM.crowd;
+        for (int i = 0; i < crowd.size; i++) {
+            if (crowd.dialogue[i] != null) {
+                // Calculate distance to NPC
+                int playerCenterX = player.worldX + player.solidArea.x + player.solidArea.width / 2;
+                int playerCenterY = player.worldY + player.solidArea.y + player.solidArea.height / 2;
+                int npcCenterX = crowd.worldX[i] + gameTileSize / 2;
+                int npcCenterY = crowd.worldY[i] + gameTileSize / 2;
+
+                int distance = (int) Math.sqrt(Math.pow(playerCenterX - npcCenterX, 2) + Math.pow(playerCenterY - npcCenterY, 2));
+
+                // Show message if player is within 2 tiles of NPC
+                if (distance < gameTileSize * 1.5) {
+                    messageSystem.showMessage(crowd.dialogue[i]);
+                    nearNPC = true;
+                    break; // Show only one message at a time
+                }
             }
+        }
+        // Hide message if not near any NPC
+        if (!nearNPC) {
+            messageSystem.hideMessage();
+        }
 
-            // Update message system to auto-hide print messages after duration
-            messageSystem.update();
+        // Update command adapter
+        if (commandParser != null && commandParser.adapter != null) {
+            commandParser.adapter.update();
+        }
 
-            // Check for victory (all chests opened) - check BEFORE death
-            if (chestSystem.getRemainingChests() == 0 && gameState == playState) {
-                gameState = winState;
-                this.requestFocusInWindow(); // Request focus for keyboard input
-                return; // Exit update immediately to prevent further processing
+        // Update message system to auto-hide print messages after duration
+        messageSystem.update();
+
+        // Check for victory (all chests opened) - check BEFORE death
+        // Move on to the next level if there is one (already loaded), the win screen after the last
+        // or if the next level failed to load
+        if (chestSystem.getRemainingChests() == 0 && gameState == playState) {
+            if (levelManager.hasNextLevel() && levelManager.advance()) {
+                messageSystem.showPrintMessage("Level " + (levelManager.getCurrentIndex() + 1) + ": " + levelManager.getCurrentName());
+            } else {
+                setGameState(winState);
             }
+            return; // Exit update immediately to prevent further processing
+        }
 
-            // Check for death
-            if (healthSystem.isDead() && gameState == playState) {
-                gameState = gameOverState;
-                this.requestFocusInWindow(); // Request focus for keyboard input
-                return; // Exit update immediately to prevent further processing
-            }
+        // Check for death
+        if (healthSystem.isDead() && gameState == playState) {
+            setGameState(gameOverState);
+            return; // Exit update immediately to prevent further processing
         }
     }
 
-    // Checks if position is visible on screen
-    private boolean isVisible(int worldX, int worldY, int margin) {
+    // Checks if position is visible on screen (also used by NPCManager for update LOD)
+    public boolean isVisible(int worldX, int worldY, int margin) {
         return worldX + margin > player.worldX - player.screenX &&
                worldX - margin < player.worldX + player.screenX &&
                worldY + margin > player.worldY - player.screenY &&
                worldY - margin < player.worldY + player.screenY;
     }
 
-    // Gets screen position for drawable entity
-    private int[] getScreenPos(Drawable d) {
-        if (d instanceof Player) {
-            return new int[]{player.screenX, player.screenY};
-        } else if (d instanceof MapObject obj) {
-            return new int[]{obj.worldX - player.worldX + player.screenX, obj.worldY - player.worldY + player.screenY};
-        } else if (d instanceof NPC npc) {
-            return new int[]{npc.worldX - player.worldX + player.screenX, npc.worldY - player.worldY + player.screenY};
+    public void paintComponent(Graphics g) {
+        if (canvas != null) {
+            return; // Active rendering - the canvas is drawn by the game thread
+        }
+        render((Graphics2D) g);
+        if (frameStats != null) {
+            frameStats.frameShown();
         }
-        return null;
+        g.dispose();
     }
 
-    public void paintComponent(Graphics g) {
-        Graphics2D g2 = (Graphics2D)g;
-
-        // If game over or win state, only draw the overlay screen (skip super.paintComponent)
-        if (gameState == gameOverState) {
-            healthSystem.drawGameOver(g2, screenWidth, screenHeight, selectedGameOverOption);
-            g2.dispose();
-            return;
+    // Draws one complete frame (EDT in repaint mode, game thread in active mode)
+    private void render(Graphics2D g2) {
+        FrameSnapshot f = frame; // Read the published snapshot once so the whole frame is consistent
+
+        // Letterbox around the scaled view, then draw in logical screen coordinates (screenWidth x screenHeight)
+        int viewScale = getViewScale();
+        int viewX = getViewX(viewScale);
+        int viewY = getViewY(viewScale);
+        if (viewX > 0 || viewY > 0) {
+            g2.setColor(Color.BLACK);
+            g2.fillRect(0, 0, getWidth(), getHeight());
         }
-
-        if (gameState == winState) {
-            healthSystem.drawWinScreen(g2, screenWidth, screenHeight, selectedWinOption);
-            g2.dispose();
-            return;
+        AffineTransform base = g2.getTransform();
+        g2.translate(viewX, viewY);
+        g2.scale(viewScale / (double) scale, viewScale / (double) scale); // Identity at the default window size
+        try {
+            states[f.gameState].render(g2, f); // Straight to the handler of the published state
+        } finally {
+            g2.setTransform(base);
         }
+    }
 
-        // Normal game rendering - call super.paintComponent for background
-        super.paintComponent(g);
+    // Largest integer factor the native world buffer can be scaled by and still fit the panel
+    private int getViewScale() {
+        int width = getWidth() > 0 ? getWidth() : screenWidth; // Not laid out yet - assume the default size
+        int height = getHeight() > 0 ? getHeight() : screenHeight;
+        return Math.max(1, Math.min(width / worldBuffer.getWidth(), height / worldBuffer.getHeight()));
+    }
 
-        // Normal game rendering
-        tileM.draw(g2);
+    // Left edge of the centred view in panel pixels
+    private int getViewX(int viewScale) {
+        return Math.max(0, (getWidth() - worldBuffer.getWidth() * viewScale) / 2);
+    }
 
-        List<Drawable> drawables = new ArrayList<>();
+    // Top edge of the centred view in panel pixels
+    private int getViewY(int viewScale) {
+        return Math.max(0, (getHeight() - worldBuffer.getHeight() * viewScale) / 2);
+    }
 
-        for (MapObject obj : objM.objects) {
-            if (isVisible(obj.worldX, obj.worldY, gameTileSize * 3)) {
-                drawables.add(obj);
-            }
+    // Convert a mouse position in panel pixels to logical screen coordinates
+    private Point toScreenCoordinates(int x, int y) {
+        int viewScale = getViewScale();
+        return new Point((x - getViewX(viewScale)) * scale / viewScale, (y - getViewY(viewScale)) * scale / viewScale);
+    }
+
+    // Draw a frame straight to the canvas through its BufferStrategy (game thread, active rendering only)
+    private void renderActive() {
+        if (!canvas.isShowing()) {
+            return; // Hidden while a menu is open
+        }
+        if (bufferStrategy == null || canvas.getWidth() != bufferWidth || canvas.getHeight() != bufferHeight) {
+            canvas.createBufferStrategy(2); // Page flipping if available, otherwise blitting (recreated on resize)
+            bufferStrategy = canvas.getBufferStrategy();
+            bufferWidth = canvas.getWidth();
+            bufferHeight = canvas.getHeight();
+        }
+        // Redraw if the buffers were lost or restored while drawing (e.g. display mode change)
+        do {
+            do {
+                Graphics2D g2 = (Graphics2D) bufferStrategy.getDrawGraphics();
+                try {
+                    render(g2);
+                } finally {
+                    g2.dispose();
+                }
+            } while (bufferStrategy.contentsRestored());
+            bufferStrategy.show();
+        } while (bufferStrategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync(); // Flush the window system queue so the frame appears now (Linux)
+        if (frameStats != null) {
+            frameStats.frameShown();
         }
+    }
+
 
-        drawables.add(player);
 
-        for (NPC npc : npcM.npcs) {
-            if (isVisible(npc.worldX, npc.worldY, gameTileSize * 4)) {
-                drawables.add(npc);
+    // Draw tiles and sprites at native resolution into the world buffer, then scale it to the screen in one blit
+    void drawWorld(Graphics2D g2) {
+        Graphics2D wg = worldBuffer.createGraphics();
+        try {
+            wg.setColor(getBackground()); // Clear to the background colour
+            wg.fillRect(0, 0, worldBuffer.getWidth(), worldBuffer.getHeight());
+            drawSnapshot(wg);
+        } finally {
+            wg.dispose();
+        }
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR); // Keep pixels sharp
+        g2.drawImage(worldBuffer, 0, 0, screenWidth, screenHeight, null);
+    }
+
+    // Draw tiles and sprites from the published render snapshots (renderer thread)
+    private void drawSnapshot(Graphics2D g2) {
+        RenderSnapshot snapshot = renderBuffer.acquire();
+        try {
+            if (snapshot == null) return; // Nothing published yet
+            RenderSnapshot previous = null;
+            float alpha = 1f;
+            if (interpolateRendering) {
+                // Render one tick behind and blend towards the latest tick by the time since it was published
+                previous = renderBuffer.acquiredPrevious();
+                double tickNanos = 1_000_000_000.0 / fps;
+                alpha = (float) Math.min(1.0, (System.nanoTime() - snapshot.timeNanos) / tickNanos);
             }
+            int cameraX = snapshot.blendCameraX(previous, alpha);
+            int cameraY = snapshot.blendCameraY(previous, alpha);
+            tileM.draw(g2, cameraX, cameraY);
+            snapshot.draw(g2, previous, alpha, cameraX, cameraY, player.screenX, player.screenY, scale);
+        } finally {
+            renderBuffer.release();
         }
+    }
 
-        drawables.sort(Comparator.comparingInt(Drawable::getSortY));
+    // Swap in a prepared level and start it from its initial state (game thread, called by LevelManager)
+    // Health carries over from the previous level
+    void startLevel(LevelManager.LevelData level) {
+        tileM.mapTile = level.mapTile;
+        tileM.collisionMask = level.collisionMask;
+        objM.objects = level.objects;
+        objM.scenery = level.scenery;
+        npcM.crowd = level.crowd;
+        objectChanges = null; // Fresh objects - nothing collected or opened
+        sensorsDirty = true;
 
-        for (Drawable d : drawables) {
-            int[] pos = getScreenPos(d);
-            if (pos != null) {
-                d.draw(g2, pos[0], pos[1]);
-            }
+        player.setDefault();
+        player.keys = 0;
+        keySystem.resetKeys();
+        chestSystem.setTotalChests(level.chestCount);
+        messageSystem.clearPrintMessages();
+        if (commandParser != null && commandParser.adapter != null) {
+            commandParser.cancelPrograms();
+            commandParser.adapter.clearQueue();
         }
-//        g2.setColor(Color.RED);
-//        for (Object o : objM.objects) {
-//            if (o instanceof MapObject) {
-//                MapObject obj = (MapObject) o;
-//                if (obj.collision) {
-//                    g2.setColor(Color.RED);
-//                    int screenX = obj.worldX - player.worldX + player.screenX;
-//                    int screenY = obj.worldY - player.worldY + player.screenY;
-//                    if (obj.worldX + gameTileSize > player.worldX - player.screenX &&
-//                            obj.worldX - gameTileSize < player.worldX + player.screenX) {
-//                        g2.drawRect(screenX + obj.solidArea.x, screenY + obj.solidArea.y, obj.solidArea.width, obj.solidArea.height);
-//                    }
-//                } else {
-//                    g2.setColor(Color.cyan);
-//                    int screenX = obj.worldX - player.worldX + player.screenX;
-//                    int screenY = obj.worldY - player.worldY + player.screenY;
-//                    if (obj.worldX + gameTileSize > player.worldX - player.screenX &&
-//                            obj.worldX - gameTileSize < player.worldX + player.screenX) {
-//                        g2.drawRect(screenX + obj.solidArea.x, screenY + obj.solidArea.y, obj.solidArea.width, obj.solidArea.height);
-//                    }
-//                }
-//            }
-//        }
-//        // Draw player collision rect
-//        g2.setColor(Color.BLUE);
-//        g2.drawRect(player.screenX + player.solidArea.x, player.screenY + player.solidArea.y, player.solidArea.width, player.solidArea.height);
-//
-//        // Draw NPC collision rect
-//        g2.setColor(Color.GREEN);
-//        for (NPC npc : npcM.npcs) {
-//            if (npc.worldX + gameTileSize > player.worldX - player.screenX &&
-//                    npc.worldX - gameTileSize < player.worldX + player.screenX) {
-//                int screenX = npc.worldX - player.worldX + player.screenX;
-//                int screenY = npc.worldY - player.worldY + player.screenY;
-//                g2.drawRect(screenX + npc.solidArea.x, screenY + npc.solidArea.y, npc.solidArea.width, npc.solidArea.height);
-//            }
-//        }
-
-        if (gameState == playState || gameState == pauseState) {
-            gameUI.draw(g2);
-        }
-
-        // Draw message bar on top of everything (if active)
-        if (gameState == playState) {
-            messageSystem.draw(g2);
-        }
-
-        g2.dispose();
-    }
-
-
-
-    // Resets game to initial state
+
+        initialWorld = snapshotWorld();
+        clearUndoHistory();
+    }
+
+    // Resets the current level to its initial state (game thread - use postRestart() from UI code)
+    // Only the objects changed since the level started are reset
     public void restartGame() {
-        player.setDefault(); // Reset player position
-        player.keys = 0; // Reset key count
-        healthSystem.resetHealth(); // Reset health
-        keySystem.resetKeys(); // Reset key display
-        chestSystem.resetChests(); // Reset chest counter
-
-        // Reset all collected objects and chests
-        for (MapObject obj : objM.objects) {
-            obj.collected = false; // Reset keys
-            obj.opened = false; // Reset chests
-            // Restore collision for chests
-            if (obj.name.startsWith("chest")) {
-                obj.collision = true;
+        restoreWorld(initialWorld);
+        clearUndoHistory();
+        setGameState(playState); // Return to play state
+    }
+
+    // ========== World snapshots (game thread) ==========
+
+    // Collect a key or open a chest and record the change
+    private void changeObject(int index) {
+        setObjectChanged(objM.objects.get(index), true);
+        objectChanges = new WorldSnapshot.ObjectChange(index, objectChanges);
+    }
+
+    // Apply (changed) or undo a key collection / chest opening on the live object
+    private void setObjectChanged(MapObject obj, boolean changed) {
+        if (obj.isKey()) {
+            obj.collected = changed;
+        } else {
+            obj.opened = changed;
+            obj.collision = !changed; // Open chests can be walked through
+        }
+        sensorsDirty = true;
+    }
+
+    // Capture the dynamic state of the world - O(NPCs), object changes are shared, not copied
+    public WorldSnapshot snapshotWorld() {
+        NPCCrowd crowd = npcM.crowd;
+        return new WorldSnapshot(
+                player.worldX, player.worldY, player.direction,
+                healthSystem.getCurrentHealth(), player.keys, chestSystem.getRemainingChests(),
+                Arrays.copyOf(crowd.worldX, crowd.size), Arrays.copyOf(crowd.worldY, crowd.size),
+                Arrays.copyOf(crowd.direction, crowd.size), objectChanges);
+    }
+
+    // Put the world back into a snapshot's state; stops running programs and clears the command queue
+    // Object changes are undone down to the newest change both states share, then the snapshot's
+    // newer changes are replayed - the cost depends on what differs, not on the size of the world
+    public void restoreWorld(WorldSnapshot snapshot) {
+        List<MapObject> objects = objM.objects;
+        WorldSnapshot.ObjectChange current = objectChanges;
+        WorldSnapshot.ObjectChange wanted = snapshot.changes;
+        ArrayDeque<Integer> replay = new ArrayDeque<>();
+        while (current != wanted) {
+            if (WorldSnapshot.ObjectChange.count(current) >= WorldSnapshot.ObjectChange.count(wanted)) {
+                setObjectChanged(objects.get(current.object), false);
+                current = current.previous;
+            } else {
+                replay.push(wanted.object);
+                wanted = wanted.previous;
             }
         }
+        while (!replay.isEmpty()) {
+            setObjectChanged(objects.get(replay.pop()), true); // Oldest first
+        }
+        objectChanges = snapshot.changes;
 
-        // Clear command queue
+        player.worldX = snapshot.playerX;
+        player.worldY = snapshot.playerY;
+        player.setState(EntityState.IDLE, snapshot.playerDirection);
+        player.keys = snapshot.keys;
+        healthSystem.setHealth(snapshot.health);
+        keySystem.setKeys(snapshot.keys);
+        chestSystem.setRemainingChests(snapshot.remainingChests);
+
+        NPCCrowd crowd = npcM.crowd;
+        int npcs = Math.min(crowd.size, snapshot.npcX.length);
+        System.arraycopy(snapshot.npcX, 0, crowd.worldX, 0, npcs);
+        System.arraycopy(snapshot.npcY, 0, crowd.worldY, 0, npcs);
+        System.arraycopy(snapshot.npcDirection, 0, crowd.direction, 0, npcs);
+
+        messageSystem.clearPrintMessages(); // Drop print() output of the abandoned run
+
+        // Stop running programs and clear the command queue (after the player moved, the adapter targets its position)
         if (commandParser != null && commandParser.adapter != null) {
+            commandParser.cancelPrograms();
             commandParser.adapter.clearQueue();
         }
+    }
 
-        gameState = playState; // Return to play state
+    // Start the random generator over from a fresh seed and return it, so the seed alone describes its state
+    long reseedRandom() {
+        long seed = random.nextLong();
+        random.setSeed(seed);
+        return seed;
+    }
+
+    // Remember the world before a command runs, so it can be undone
+    public void checkpoint() {
+        if (undoHistory.size() == MAX_UNDO) {
+            undoHistory.removeLast(); // Forget the oldest
+        }
+        undoHistory.push(snapshotWorld());
+    }
+
+    // Forget every checkpoint - after a restart, a new level or a loaded save there is nothing to undo
+    void clearUndoHistory() {
+        undoHistory.clear();
+    }
+
+    // Go back to the world before the last command, false if there is nothing to undo
+    public boolean undo() {
+        WorldSnapshot snapshot = undoHistory.poll();
+        if (snapshot == null) {
+            return false;
+        }
+        restoreWorld(snapshot);
+        return true;
     }
 }
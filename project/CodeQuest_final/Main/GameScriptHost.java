@@ -0,0 +1,112 @@
+package CodeQuest.Main;
+
+import CodeQuest.Entity.Direction;
+import CodeQuest.Script.ScriptHost;
+
+// The functions and variables a player's program can use, shared by the game (CommandParser)
+// and the batch grader (GraderWorld) so both always offer the same names
+// player.move*(), the sensors near_key() and blocked(dir), and the variables x, y, health, keys and
+// the directions UP, DOWN, LEFT, RIGHT. Subclasses only say how to read and move the player.
+public abstract class GameScriptHost implements ScriptHost {
+
+    // Player world position, health and keys held, as the program should see them
+    protected abstract int playerX();
+
+    protected abstract int playerY();
+
+    protected abstract int health();
+
+    protected abstract int keys();
+
+    // Move the player one tile and return once the move is over
+    protected abstract void move(Direction direction);
+
+    // Key not collected yet on the player's tile or one of the eight around it
+    protected abstract boolean isKeyNear();
+
+    // Solid tile or object next to the player
+    protected abstract boolean isBlocked(Direction direction);
+
+    // Built-in variables
+    @Override
+    public boolean hasVariable(String name) {
+        switch (name) {
+            case "x":
+            case "y":
+            case "health":
+            case "keys":
+            case "UP":
+            case "DOWN":
+            case "LEFT":
+            case "RIGHT":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public int getVariable(String name) {
+        switch (name) {
+            case "x": return playerX();
+            case "y": return playerY();
+            case "health": return health();
+            case "keys": return keys();
+            case "UP": return Direction.UP.code();
+            case "DOWN": return Direction.DOWN.code();
+            case "LEFT": return Direction.LEFT.code();
+            case "RIGHT": return Direction.RIGHT.code();
+            default: return 0;
+        }
+    }
+
+    // Method-style commands and sensors
+    @Override
+    public boolean hasFunction(String name, int argCount) {
+        switch (name) {
+            case "player.moveup":
+            case "player.movedown":
+            case "player.moveleft":
+            case "player.moveright":
+            case "near_key":
+                return argCount == 0;
+            case "blocked":
+                return argCount == 1;
+            default:
+                return false;
+        }
+    }
+
+    // Sensors only read the world
+    @Override
+    public boolean isAction(String name) {
+        return !name.equals("near_key") && !name.equals("blocked");
+    }
+
+    @Override
+    public int call(String name, int[] args) {
+        switch (name) {
+            case "player.moveup":
+                move(Direction.UP);
+                return 0;
+            case "player.movedown":
+                move(Direction.DOWN);
+                return 0;
+            case "player.moveleft":
+                move(Direction.LEFT);
+                return 0;
+            case "player.moveright":
+                move(Direction.RIGHT);
+                return 0;
+            case "near_key":
+                return isKeyNear() ? 1 : 0;
+            case "blocked":
+                if (args[0] < 0 || args[0] > Direction.RIGHT.code()) {
+                    throw new IllegalArgumentException("blocked() needs UP, DOWN, LEFT or RIGHT");
+                }
+                return isBlocked(Direction.fromCode(args[0])) ? 1 : 0;
+            default:
+                return 0;
+        }
+    }
+}
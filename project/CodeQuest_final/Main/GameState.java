@@ -0,0 +1,58 @@
+package CodeQuest.Main;
+
+import java.awt.Graphics2D;
+
+/**
+ * GameState - behaviour of one screen of the game (play, pause, game over, menus, ...)
+ * GamePanel keeps a stack of states and dispatches each frame straight to the one on top,
+ * so no code has to branch over the state constants. Overlays such as pause are pushed
+ * over the state they cover, which stays on the stack untouched until they are popped.
+ * Every method has an empty default, so idle states (the Swing menus) cost nothing per frame.
+ */
+public interface GameState {
+
+    /**
+     * Called when the state is put on the stack (game thread)
+     */
+    default void enter() {
+    }
+
+    /**
+     * Called when the state is taken off the stack (game thread)
+     */
+    default void exit() {
+    }
+
+    /**
+     * Advances the state by one tick; only the state on top of the stack is updated (game thread)
+     */
+    default void update() {
+    }
+
+    /**
+     * Draws the state in logical screen coordinates (renderer thread)
+     * Runs for the state published in the frame snapshot and may only read snapshot data
+     * @param g2 Graphics context, already scaled to the window
+     * @param frame Latest snapshot published by the game thread
+     */
+    default void render(Graphics2D g2, FrameSnapshot frame) {
+    }
+
+    /**
+     * Handles a key press on the game panel or a global shortcut (EDT)
+     * Changes to the game must be posted to the game thread
+     * @param code Key code of the pressed key
+     * @return true if the key was used
+     */
+    default boolean keyPressed(int code) {
+        return false;
+    }
+
+    /**
+     * Handles a mouse click on the game panel (EDT)
+     * @param x Click position in logical screen coordinates
+     * @param y Click position in logical screen coordinates
+     */
+    default void mouseClicked(int x, int y) {
+    }
+}
@@ -0,0 +1,21 @@
+package CodeQuest.Main;
+
+/**
+ * GameStateListener - notified when GamePanel.gameState changes
+ * Hooks run on the game thread, right where the transition happens; Swing code
+ * should hand the work to the EDT with SwingUtilities.invokeLater
+ */
+public interface GameStateListener {
+    /**
+     * Called before the game leaves a state
+     * @param state The state being left
+     */
+    default void onExit(int state) {
+    }
+
+    /**
+     * Called after the game entered a state
+     * @param state The new state
+     */
+    void onEnter(int state);
+}
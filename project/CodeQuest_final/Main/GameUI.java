@@ -6,19 +6,23 @@ import CodeQuest.Entity.KeySystem;
 import CodeQuest.Tiles.AssetHandler;
 
 import java.awt.*;
+import java.awt.font.GlyphVector;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
 
 /**
  * GameUI - Displays the HUD (Heads-Up Display) for the game
  * Shows health hearts, key count, and chest count in the top-left corner
- * Implements Observer pattern to react to changes in game systems
+ * The HUD is kept in a cached translucent image. Widgets observe the game systems and only the
+ * widgets whose system notified are repainted (dirty rectangles); every frame just composites
+ * the cached image with one drawImage.
  */
 public class GameUI implements Observer {
 
-    // Game systems being observed
-    private HealthSystem healthSystem;
-    private KeySystem keySystem;
-    private ChestSystem chestSystem;
+    // Shared style for counter text
+    private static final Font COUNT_FONT = new Font("Arial", Font.BOLD, 20);
 
     // UI sprites
     private BufferedImage heartFull;   // Full heart sprite
@@ -26,105 +30,175 @@ public class GameUI implements Observer {
     private BufferedImage keyFull;     // Key icon sprite
     private BufferedImage chestIcon;   // Chest icon sprite
 
+    // HUD layer
+    private final List<HudWidget> widgets = new ArrayList<>(); // Widgets in paint order
+    private final Rectangle area = new Rectangle(); // Union of all widget bounds
+    private BufferedImage hudImage; // Cached HUD, one pixel per device pixel (renderer only)
+    private double hudScale = 0; // Device pixels per logical pixel the image was made for
+
     /**
-     * Constructor: initializes UI and loads sprites
+     * Constructor: initializes UI, loads sprites and creates the widgets
      * @param healthSystem The health management system
      * @param keySystem The key collection system
      * @param chestSystem The chest tracking system
      */
     public GameUI(HealthSystem healthSystem, KeySystem keySystem, ChestSystem chestSystem) {
-        this.healthSystem = healthSystem;
-        this.keySystem = keySystem;
-        this.chestSystem = chestSystem;
-
         // Load UI sprites from asset handler
         heartFull = AssetHandler.getInstance().getImage("heart");
         heartEmpty = AssetHandler.getInstance().getImage("broken_heart");
         keyFull = AssetHandler.getInstance().getImage("full_key");
         chestIcon = AssetHandler.getInstance().getImage("chest1");
+
+        // Hearts (top-left), then key and chest counters below
+        addWidget(new HeartsWidget(new Rectangle(20, 20, 400, 32)), healthSystem);
+        addWidget(new CounterWidget(new Rectangle(20, 60, 150, 32), keyFull, f -> f.keys), keySystem);
+        addWidget(new CounterWidget(new Rectangle(20, 100, 150, 32), chestIcon, f -> f.remainingChests), chestSystem);
     }
 
     /**
-     * Main draw method - renders all UI elements
-     * @param g2 Graphics context for rendering
+     * Adds a widget to the HUD and registers it with the systems it displays
+     * Call during setup, before the game thread starts
+     * @param widget The widget to add
+     * @param subjects Systems whose changes should repaint the widget
      */
-    public void draw(Graphics2D g2) {
-        drawHealth(g2);
-        drawKeys(g2);
-        drawChests(g2);
+    public void addWidget(HudWidget widget, Subject... subjects) {
+        for (Subject subject : subjects) {
+            subject.registerObserver(widget);
+        }
+        widgets.add(widget);
+        area.add(widget.bounds);
+        hudScale = 0; // Image size changed - rebuild on next draw
     }
 
     /**
-     * Draws health hearts in the top-left corner
-     * Shows full hearts for remaining health, empty hearts for lost health
-     * @param g2 Graphics context for rendering
+     * Versions of all widgets, published in each FrameSnapshot (game thread)
+     * @return One version per widget, in paint order
      */
-    private void drawHealth(Graphics2D g2) {
-        int x = 20;
-        int y = 20;
-        int heartSize = 32;
-        int heartSpacing = 8;
-
-        // Draw each heart (full or empty based on current health)
-        for (int i = 0; i < healthSystem.getMaxHealth(); i++) {
-            BufferedImage heartImage = (i < healthSystem.getCurrentHealth()) ? heartFull : heartEmpty;
-            g2.drawImage(heartImage, x, y, heartSize, heartSize, null);
-            x += heartSize + heartSpacing;
+    public int[] getVersions() {
+        int[] versions = new int[widgets.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = widgets.get(i).getVersion();
         }
+        return versions;
     }
 
     /**
-     * Draws key count display below health hearts
-     * Shows key icon followed by number of keys collected
-     * @param g2 Graphics context for rendering
+     * Main draw method - repaints dirty widgets into the cached image, then composites it
+     * Values come from the frame snapshot, since this runs on the paint thread
+     * @param g2 Graphics context for rendering (logical screen coordinates)
+     * @param frame Latest snapshot published by the game thread
      */
-    private void drawKeys(Graphics2D g2) {
-        int x = 20;
-        int y = 60;
-        int keySize = 32;
-
-        // Draw key icon
-        if (keyFull != null) {
-            g2.drawImage(keyFull, x, y, keySize, keySize, null);
+    public void draw(Graphics2D g2, FrameSnapshot frame) {
+        // Match the image to the current view scale so text stays sharp in large windows
+        double scale = g2.getTransform().getScaleX();
+        if (hudImage == null || scale != hudScale) {
+            hudScale = scale;
+            hudImage = new BufferedImage(
+                    Math.max(1, (int) Math.ceil(area.width * scale)),
+                    Math.max(1, (int) Math.ceil(area.height * scale)),
+                    BufferedImage.TYPE_INT_ARGB);
+            for (HudWidget widget : widgets) {
+                widget.drawnVersion = -1; // Everything is dirty in a new image
+            }
+        }
+
+        Graphics2D hg = null;
+        for (int i = 0; i < widgets.size(); i++) {
+            HudWidget widget = widgets.get(i);
+            int version = frame.hudVersions[i];
+            if (widget.drawnVersion == version) {
+                continue; // Unchanged since it was last painted
+            }
+            if (hg == null) {
+                hg = hudImage.createGraphics();
+                hg.scale(hudScale, hudScale);
+                hg.translate(-area.x, -area.y); // Widgets paint in logical screen coordinates
+                hg.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            }
+            // Clear only this widget's rectangle and repaint it
+            hg.setClip(widget.bounds);
+            hg.setComposite(AlphaComposite.Clear);
+            hg.fillRect(widget.bounds.x, widget.bounds.y, widget.bounds.width, widget.bounds.height);
+            hg.setComposite(AlphaComposite.SrcOver);
+            widget.paint(hg, frame);
+            widget.drawnVersion = version;
+        }
+        if (hg != null) {
+            hg.dispose();
         }
 
-        // Draw key count text
-        g2.setFont(new Font("Arial", Font.BOLD, 20));
-        g2.setColor(Color.WHITE);
-        String text = ": " + keySystem.getCurrentKeys();
-        g2.drawString(text, x + keySize + 5, y + 22);
+        g2.drawImage(hudImage, area.x, area.y, area.width, area.height, null);
+    }
+
+    /**
+     * Observer pattern update method
+     * Forces a full HUD repaint (each widget also observes its own system)
+     */
+    @Override
+    public void update() {
+        for (HudWidget widget : widgets) {
+            widget.update();
+        }
     }
 
     /**
-     * Draws remaining chest count below key display
-     * Shows chest icon followed by number of chests remaining to open
-     * @param g2 Graphics context for rendering
+     * Health hearts widget
+     * Shows full hearts for remaining health, empty hearts for lost health
      */
-    private void drawChests(Graphics2D g2) {
-        int x = 20;
-        int y = 100;
-        int iconSize = 32;
-
-        // Draw chest icon
-        if (chestIcon != null) {
-            g2.drawImage(chestIcon, x, y, iconSize, iconSize, null);
+    private class HeartsWidget extends HudWidget {
+        HeartsWidget(Rectangle bounds) {
+            super(bounds);
         }
 
-        // Draw chest count text
-        g2.setFont(new Font("Arial", Font.BOLD, 20));
-        g2.setColor(Color.WHITE);
-        String text = ": " + chestSystem.getRemainingChests();
-        g2.drawString(text, x + iconSize + 5, y + 22);
+        @Override
+        public void paint(Graphics2D g2, FrameSnapshot frame) {
+            int x = bounds.x;
+            int y = bounds.y;
+            int heartSize = 32;
+            int heartSpacing = 8;
+
+            // Draw each heart (full or empty based on current health)
+            for (int i = 0; i < frame.maxHealth; i++) {
+                BufferedImage heartImage = (i < frame.health) ? heartFull : heartEmpty;
+                g2.drawImage(heartImage, x, y, heartSize, heartSize, null);
+                x += heartSize + heartSpacing;
+            }
+        }
     }
 
     /**
-     * Observer pattern update method
-     * Called when observed systems (health, keys, chests) change state
-     * Currently unused as drawing happens in main game loop
+     * Icon followed by a count (keys collected, chests remaining)
+     * The count text is kept as a GlyphVector and only laid out again when the number changes
      */
-    @Override
-    public void update() {
-        // This will be used to refresh UI elements if needed,
-        // but for now, drawing is handled in the main game loop.
+    private static class CounterWidget extends HudWidget {
+        private final BufferedImage icon; // Icon drawn before the count
+        private final ToIntFunction<FrameSnapshot> value; // Reads the count from a snapshot
+        private GlyphVector text; // Laid out ": n" text
+        private int textValue; // Count the glyph vector was made for
+
+        CounterWidget(Rectangle bounds, BufferedImage icon, ToIntFunction<FrameSnapshot> value) {
+            super(bounds);
+            this.icon = icon;
+            this.value = value;
+        }
+
+        @Override
+        public void paint(Graphics2D g2, FrameSnapshot frame) {
+            int iconSize = 32;
+
+            // Draw icon
+            if (icon != null) {
+                g2.drawImage(icon, bounds.x, bounds.y, iconSize, iconSize, null);
+            }
+
+            // Draw count text
+            int count = value.applyAsInt(frame);
+            if (text == null || count != textValue || !g2.getFontRenderContext().equals(text.getFontRenderContext())) {
+                text = COUNT_FONT.createGlyphVector(g2.getFontRenderContext(), ": " + count);
+                textValue = count;
+            }
+            g2.setColor(Color.WHITE);
+            g2.drawGlyphVector(text, bounds.x + iconSize + 5, bounds.y + 22);
+        }
     }
 }
@@ -0,0 +1,51 @@
+package CodeQuest.Main;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+
+/**
+ * HudWidget - One element of the HUD layer (hearts, key counter, chest counter, ...)
+ * Each widget observes the Subjects it displays. update() only bumps a version number on the
+ * game thread; the renderer repaints the widget's rectangle in the cached HUD image when the
+ * version published in the FrameSnapshot differs from the one it last drew.
+ * New widgets extend this class and are added with GameUI.addWidget().
+ */
+public abstract class HudWidget implements Observer {
+
+    protected final Rectangle bounds; // Area the widget draws in (logical screen coordinates)
+    private volatile int version = 0; // Changes counted on the game thread
+    int drawnVersion = -1; // Version last painted into the HUD image (renderer only)
+
+    /**
+     * Constructor: sets the widget area
+     * @param bounds Area the widget may draw in, everything outside is clipped
+     */
+    protected HudWidget(Rectangle bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * Observer pattern update method
+     * Called on the game thread when an observed system changes - marks the widget dirty
+     */
+    @Override
+    public void update() {
+        version++; // Single writer (game thread), so the increment is safe
+    }
+
+    /**
+     * Current version, copied into each FrameSnapshot
+     * @return Number of changes seen so far
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Paints the widget using values from the frame snapshot
+     * Only called after a change, onto a cleared area clipped to bounds
+     * @param g2 Graphics of the cached HUD image
+     * @param frame Snapshot the change was published in
+     */
+    public abstract void paint(Graphics2D g2, FrameSnapshot frame);
+}
@@ -0,0 +1,186 @@
+package CodeQuest.Main;
+
+import CodeQuest.Entity.NPCCrowd;
+import CodeQuest.Entity.NPCManager;
+import CodeQuest.Tiles.Autotiler;
+import CodeQuest.Tiles.MapObject;
+import CodeQuest.Tiles.ObjectManager;
+import CodeQuest.Tiles.Scenery;
+import CodeQuest.Tiles.TileManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs the course of levels listed in res/Maps/Levels.txt
+// While a level is played the next one is read (tiles, objects with their sprites, NPCs) on a
+// background thread, so when the last chest opens GamePanel swaps it in on the same tick - no
+// loading screen. Prepared levels are used once: each start gets freshly created objects.
+public class LevelManager {
+    public static final String MAPS = "/CodeQuest/res/Maps/"; // Folder of the manifest and level files
+
+    // One line of the manifest
+    public static final class Level {
+        public final int index; // Position in the course, from 0
+        public final String name; // Shown when the level starts
+        public final String mapFile; // Tile IDs
+        public final String objectsFile; // Map objects
+        public final String npcsFile; // NPCs
+
+        Level(int index, String name, String mapFile, String objectsFile, String npcsFile) {
+            this.index = index;
+            this.name = name;
+            this.mapFile = mapFile;
+            this.objectsFile = objectsFile;
+            this.npcsFile = npcsFile;
+        }
+    }
+
+    // A level read from disk, ready to be swapped in by GamePanel.startLevel (game thread)
+    public static final class LevelData {
+        public final Level level;
+        final int[][] mapTile; // Tile IDs [col][row], beach edges baked in
+        final boolean[] collisionMask; // Tiles that block movement, index col + row * maxWorldCol
+        final List<MapObject> objects; // New interactive objects, nothing collected or opened
+        final Scenery scenery; // Static objects
+        final NPCCrowd crowd; // NPCs at their spawn points
+        final int chestCount; // Chests to open to finish the level
+
+        LevelData(Level level, int[][] mapTile, boolean[] collisionMask, List<MapObject> objects, Scenery scenery,
+                  NPCCrowd crowd) {
+            this.level = level;
+            this.mapTile = mapTile;
+            this.collisionMask = collisionMask;
+            this.objects = objects;
+            this.scenery = scenery;
+            this.crowd = crowd;
+            int chests = 0;
+            for (MapObject obj : objects) {
+                if (obj.isChest()) chests++;
+            }
+            this.chestCount = chests;
+        }
+    }
+
+    private final GamePanel gamePanel;
+    private final List<Level> levels; // The course, in play order
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "Level loader");
+        thread.setDaemon(true); // Never keeps the game from exiting
+        return thread;
+    });
+    private volatile int current = -1; // Index of the level being played (written on the game thread)
+    private CompletableFuture<LevelData> next; // Level after the current one (the first after the last), loading or loaded (game thread)
+
+    public LevelManager(GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+        this.levels = readManifest();
+    }
+
+    // Levels listed in the manifest: "map objects npcs name", '#' starts a comment line
+    public static List<Level> readManifest() {
+        List<Level> levels = new ArrayList<>();
+        try {
+            InputStream is = LevelManager.class.getResourceAsStream(MAPS + "Levels.txt");
+            if (is != null) {
+                BufferedReader br = new BufferedReader(new InputStreamReader(is));
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (line.isBlank() || line.startsWith("#")) continue;
+                    String[] parts = line.trim().split(" ", 4); // The name may contain spaces
+                    if (parts.length < 3) continue;
+                    String name = parts.length > 3 ? parts[3] : parts[0];
+                    levels.add(new Level(levels.size(), name, MAPS + parts[0], MAPS + parts[1], MAPS + parts[2]));
+                }
+                br.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (levels.isEmpty()) {
+            // No manifest - the original single level
+            levels.add(new Level(0, "CodeQuest", MAPS + "WorldMap2.txt", MAPS + "Objects.txt", MAPS + "NPCs.txt"));
+        }
+        return Collections.unmodifiableList(levels);
+    }
+
+    // Read a level's files (any thread - the loader thread normally, the caller's thread for saves)
+    public LevelData load(int index) {
+        Level level = levels.get(index);
+        int[][] mapTile = new int[gamePanel.maxWorldCol][gamePanel.maxWorldRow];
+        TileManager.readMap(level.mapFile, mapTile);
+        Scenery.Builder scenery = new Scenery.Builder(gamePanel.gameTileSize, gamePanel.maxWorldCol, gamePanel.maxWorldRow);
+        Autotiler terrain = new Autotiler(gamePanel.maxWorldCol, gamePanel.maxWorldRow);
+        List<MapObject> objects = ObjectManager.readObjects(level.objectsFile, gamePanel.gameTileSize, scenery, terrain);
+        boolean[] collisionMask = terrain.bake(mapTile);
+        NPCCrowd crowd = new NPCCrowd();
+        NPCManager.readNPCs(level.npcsFile, crowd, gamePanel.gameTileSize);
+        return new LevelData(level, mapTile, collisionMask, objects, scenery.build(), crowd);
+    }
+
+    // Start a level and begin loading the one after it - the first level after the last, for a new course (game thread)
+    public void start(LevelData data) {
+        gamePanel.startLevel(data);
+        current = data.level.index;
+        int nextIndex = (current + 1) % levels.size();
+        next = CompletableFuture.supplyAsync(() -> load(nextIndex), loader);
+    }
+
+    // Start the first level, loaded on the calling thread (game start)
+    public void startCourse() {
+        start(load(0));
+    }
+
+    // Start the course again from the first level (game thread) - already loaded when the last level is done,
+    // read again here if it was not preloaded or its loading failed
+    public void restartCourse() {
+        LevelData data = hasNextLevel() ? null : preloaded();
+        start(data != null ? data : load(0));
+    }
+
+    public boolean hasNextLevel() {
+        return current + 1 < levels.size();
+    }
+
+    // Move on to the preloaded next level (game thread) - only waits if it is somehow not loaded yet
+    // Returns false, staying on the current level, if the next level could not be loaded
+    public boolean advance() {
+        LevelData data = preloaded();
+        if (data == null) return false;
+        start(data);
+        return true;
+    }
+
+    // The level loaded in the background, null (reported) if reading its files failed
+    private LevelData preloaded() {
+        try {
+            return next.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.out.println("Could not load the next level: " + cause);
+            return null;
+        }
+    }
+
+    // Index of the level being played
+    public int getCurrentIndex() {
+        return current;
+    }
+
+    public String getCurrentName() {
+        return levels.get(current).name;
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+}
@@ -7,14 +7,29 @@ import java.awt.event.*;
 // Main class - entry point for CodeQuest game
 public class Main {
     public static void main(String[] args) {
+        // Startup flags: --active-render draws the game from the game thread through a BufferStrategy,
+        // --frame-stats prints frame time statistics to compare the rendering modes
+        boolean activeRendering = false;
+        boolean frameStats = false;
+        for (String arg : args) {
+            if (arg.equals("--active-render")) activeRendering = true;
+            if (arg.equals("--frame-stats")) frameStats = true;
+        }
+
         // Create main window
         JFrame frame = new JFrame();
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setResizable(false);
+        frame.setResizable(true); // The game view scales to the window
         frame.setTitle("CodeQuest");
 
         // Create game panel and command input panel
         GamePanel gamePanel = new GamePanel();
+        if (activeRendering) {
+            gamePanel.enableActiveRendering();
+        }
+        if (frameStats) {
+            gamePanel.enableFrameStats();
+        }
         CommandInputPanel commandPanel = new CommandInputPanel(gamePanel.commandParser);
 
         // Create layered pane for menus
@@ -25,8 +40,18 @@ public class Main {
         gamePanel.setBounds(0, 0, gamePanel.screenWidth, gamePanel.screenHeight);
         layeredPane.add(gamePanel, JLayeredPane.DEFAULT_LAYER);
 
-        // Create menu manager
-        MenuManager menuManager = new MenuManager(gamePanel, layeredPane);
+        // Keep the game panel and menus filling the layered pane when the window is resized
+        layeredPane.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                for (Component component : layeredPane.getComponents()) {
+                    component.setBounds(0, 0, layeredPane.getWidth(), layeredPane.getHeight());
+                }
+            }
+        });
+
+        // Create menu manager (shows menus and plays music when the game state changes)
+        new MenuManager(gamePanel, layeredPane);
 
         // Create container layout
         JPanel container = new JPanel(new BorderLayout());
@@ -44,33 +69,10 @@ public class Main {
             new KeyEventDispatcher() {
                 @Override
                 public boolean dispatchKeyEvent(KeyEvent e) {
-                    if (e.getID() == KeyEvent.KEY_PRESSED) {
-                        // ESC key - pause game or exit on game over
-                        if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
-                            if (gamePanel.gameState == gamePanel.playState) {
-                                gamePanel.gameState = gamePanel.pauseState;
-                                menuManager.update();
-                                return true;
-                            } else if (gamePanel.gameState == gamePanel.gameOverState) {
-                                gamePanel.gameState = gamePanel.menuState;
-                                menuManager.update();
-                                return true;
-                            } else if (gamePanel.gameState == gamePanel.winState) {
-                                gamePanel.gameState = gamePanel.menuState;
-                                menuManager.update();
-                                return true;
-                            }
-                        }
-                        // R key - restart on game over
-                        if (e.getKeyCode() == KeyEvent.VK_R) {
-                            if (gamePanel.gameState == gamePanel.gameOverState) {
-                                gamePanel.restartGame();
-                                return true;
-                            } else if (gamePanel.gameState == gamePanel.winState) {
-                                gamePanel.restartGame();
-                                return true;
-                            }
-                        }
+                    // ESC and R work even while the command field has focus - the current state decides what they do
+                    if (e.getID() == KeyEvent.KEY_PRESSED &&
+                        (e.getKeyCode() == KeyEvent.VK_ESCAPE || e.getKeyCode() == KeyEvent.VK_R)) {
+                        return gamePanel.getState(gamePanel.gameState).keyPressed(e.getKeyCode());
                     }
                     return false;
                 }
@@ -79,14 +81,5 @@ public class Main {
 
         // Start game thread
         gamePanel.startGameThread();
-
-        // Timer to update menu visibility
-        Timer menuTimer = new Timer(50, e -> menuManager.update());
-        menuTimer.start();
-
-        // Timer to update command queue label
-        Timer queueTimer = new Timer(100, e -> commandPanel.updateQueueLabel());
-        queueTimer.start();
-
     }
 }
@@ -67,7 +67,7 @@ public class MainMenu extends JPanel {
 
                 // Go back to title
                 if (code == KeyEvent.VK_ESCAPE) {
-                    gamePanel.gameState = gamePanel.titleState;
+                    gamePanel.postGameState(gamePanel.titleState);
                 }
             }
         });
@@ -82,13 +82,13 @@ public class MainMenu extends JPanel {
     private void selectOption() {
         switch (selectedOption) {
             case 0: // Play Game
-                gamePanel.gameState = gamePanel.playState;
+                gamePanel.postGameState(gamePanel.playState);
                 gamePanel.requestFocusInWindow();
                 System.out.println("🎮 Starting game...");
                 break;
 
             case 1: // Options
-                gamePanel.gameState = gamePanel.optionsState;
+                gamePanel.post(() -> gamePanel.pushGameState(gamePanel.optionsState)); // Opened over this menu
                 System.out.println("⚙️ Opening options...");
                 break;
 
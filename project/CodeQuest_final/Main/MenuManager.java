@@ -4,7 +4,8 @@ import javax.swing.*;
 import java.awt.*;
 
 // Manages all game menus and their visibility
-public class MenuManager {
+// Reacts to game state transitions instead of polling, so menus and music only change when the state does
+public class MenuManager implements GameStateListener {
 
     private GamePanel gamePanel; // Reference to game panel
     private TitleScreen titleScreen; // Title screen menu
@@ -42,16 +43,24 @@ public class MenuManager {
         layeredPane.add(optionsMenu, JLayeredPane.POPUP_LAYER);
 
         hideAll(); // Start with all menus hidden
+        showState(gamePanel.gameState); // Show the starting state
+        gamePanel.addStateListener(this);
     }
-    
-    // Updates menu visibility based on game state
-    public void update() {
+
+    // Game state transition (game thread) - apply it on the EDT
+    @Override
+    public void onEnter(int state) {
+        SwingUtilities.invokeLater(() -> showState(state));
+    }
+
+    // Updates menu visibility and music for a state (EDT)
+    private void showState(int state) {
         hideAll(); // Hide all menus first
 
         // Show/hide game panel based on state
-        if (gamePanel.gameState == gamePanel.playState ||
-            gamePanel.gameState == gamePanel.gameOverState ||
-            gamePanel.gameState == gamePanel.winState) {
+        if (state == gamePanel.playState ||
+            state == gamePanel.gameOverState ||
+            state == gamePanel.winState) {
             gamePanel.setVisible(true);
         } else {
             gamePanel.setVisible(false);
@@ -59,24 +68,24 @@ public class MenuManager {
 
         // Manage background music based on state
         if (gamePanel.soundManager != null) {
-            if (gamePanel.gameState == gamePanel.playState) {
+            if (state == gamePanel.playState) {
                 // Play town music during gameplay (only if not already playing)
                 gamePanel.soundManager.playMusic("town");
-            } else if (gamePanel.gameState == gamePanel.pauseState) {
-                // Stop music when paused
-                gamePanel.soundManager.stopMusic();
-            } else if (gamePanel.gameState == gamePanel.titleState ||
-                       gamePanel.gameState == gamePanel.menuState ||
-                       gamePanel.gameState == gamePanel.optionsState ||
-                       gamePanel.gameState == gamePanel.gameOverState ||
-                       gamePanel.gameState == gamePanel.winState) {
+            } else if (state == gamePanel.pauseState) {
+                // Pause music, resumes from the same spot when play continues
+                gamePanel.soundManager.pauseMusic();
+            } else if (state == gamePanel.titleState ||
+                       state == gamePanel.menuState ||
+                       state == gamePanel.optionsState ||
+                       state == gamePanel.gameOverState ||
+                       state == gamePanel.winState) {
                 // Play menu music for menu states (except pause)
                 gamePanel.soundManager.playMusic("menu");
             }
         }
 
         // Show appropriate menu for current state
-        switch (gamePanel.gameState) {
+        switch (state) {
             case 0: // Title state
                 titleScreen.setVisible(true);
                 titleScreen.requestFocusInWindow();
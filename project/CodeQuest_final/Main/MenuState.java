@@ -0,0 +1,6 @@
+package CodeQuest.Main;
+
+// Title screen, main menu and options - the Swing menu panels draw themselves and handle the
+// keyboard, so there is no world simulation or rendering while one of them is open
+public class MenuState implements GameState {
+}
@@ -0,0 +1,278 @@
+package CodeQuest.Main;
+
+import javax.sound.sampled.*;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Streams background music to a SourceDataLine on its own thread
+// Tracks are decoded a small chunk at a time instead of being loaded whole into a Clip.
+// Supports gapless looping, cross-fading between tracks and pause/resume.
+public class MusicStreamer {
+    private static final int CHUNK_FRAMES = 2048; // Frames decoded and written per loop (~46ms at 44.1kHz)
+    private static final int FADE_MILLIS = 1000; // Cross-fade length
+
+    // One decoded music stream with its fade state (music thread only)
+    private static class Track {
+        final String name;
+        final URL url;
+        final float volume; // Track volume (menu music is quieter)
+        AudioInputStream stream;
+        byte[] chunk; // Small reusable buffer the decoder fills each loop
+        float gain = 0f; // Fade gain, 0 to 1
+        float gainStep = 0f; // Gain change per frame
+
+        Track(String name, URL url, float volume) {
+            this.name = name;
+            this.url = url;
+            this.volume = volume;
+        }
+    }
+
+    private final LinkedBlockingQueue<Runnable> commands = new LinkedBlockingQueue<>(); // Requests from game code
+    private SourceDataLine line; // Output line (music thread only)
+    private AudioFormat lineFormat; // PCM format of the output line
+    private Track current; // Track fading in or playing
+    private Track fading; // Previous track fading out during a cross-fade
+    private boolean paused = false;
+    private float masterVolume = 1f;
+    private int[] mix; // Mix buffer, one int per sample
+    private byte[] out; // Output buffer written to the line
+
+    // Constructor: starts the music thread
+    public MusicStreamer() {
+        Thread thread = new Thread(this::run, "Music");
+        thread.setDaemon(true); // Don't prevent JVM shutdown
+        thread.start();
+    }
+
+    // Cross-fade to a track (non-blocking)
+    public void play(String name, URL url, float volume) {
+        commands.offer(() -> startTrack(new Track(name, url, volume)));
+    }
+
+    // Fade out and stop all music (non-blocking)
+    // While paused the line is stopped, so nothing could be written for a fade: close the tracks at once
+    public void stop() {
+        commands.offer(() -> {
+            if (paused) {
+                closeTrack(current);
+                closeTrack(fading);
+                fading = null;
+                if (line != null) line.flush(); // Drop the audio buffered before the pause
+                paused = false;
+            } else {
+                fadeOut(current);
+            }
+            current = null;
+        });
+    }
+
+    // Pause output, keeping the stream position (non-blocking)
+    public void pause() {
+        commands.offer(() -> {
+            paused = true;
+            if (line != null) line.stop();
+        });
+    }
+
+    // Continue from where pause() stopped (non-blocking)
+    public void resume() {
+        commands.offer(() -> {
+            paused = false;
+            if (line != null) line.start();
+        });
+    }
+
+    // Set overall music volume, 0.0 to 1.0 (non-blocking)
+    public void setVolume(float volume) {
+        commands.offer(() -> masterVolume = volume);
+    }
+
+    // Music thread loop: apply commands, then decode, mix and write one chunk
+    private void run() {
+        while (true) {
+            try {
+                // Block while there is nothing to play
+                Runnable command = isIdle() ? commands.take() : commands.poll();
+                while (command != null) {
+                    command.run();
+                    command = commands.poll();
+                }
+                if (!isIdle()) {
+                    writeChunk(); // Blocks until the line has room, which paces the loop
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Error streaming music: " + e.getMessage());
+                closeTrack(current);
+                closeTrack(fading);
+                current = null;
+                fading = null;
+            }
+        }
+    }
+
+    private boolean isIdle() {
+        return paused || (current == null && fading == null);
+    }
+
+    // Open a track and cross-fade to it from whatever is playing
+    private void startTrack(Track track) {
+        paused = false;
+        try {
+            openStream(track);
+        } catch (UnsupportedAudioFileException e) {
+            System.out.println("Music file format not supported: " + track.name + ". Continuing without background music.");
+            return;
+        } catch (IOException e) {
+            System.out.println("Error loading music: " + e.getMessage());
+            return;
+        }
+
+        AudioFormat format = track.stream.getFormat();
+        if (line == null || !format.matches(lineFormat)) {
+            // Different sample rate or channel count - can't mix, so switch without a cross-fade
+            closeTrack(current);
+            closeTrack(fading);
+            current = null;
+            fading = null;
+            if (!openLine(format)) {
+                closeTrack(track);
+                return;
+            }
+            track.gain = 1f;
+        } else {
+            closeTrack(fading); // Only one fade-out at a time
+            fading = null;
+            fadeOut(current);
+            track.gain = 0f;
+            track.gainStep = 1f / framesFor(FADE_MILLIS);
+        }
+        line.start();
+        track.chunk = new byte[CHUNK_FRAMES * format.getFrameSize()];
+        current = track;
+    }
+
+    // Start fading a track out; it closes once silent
+    private void fadeOut(Track track) {
+        if (track == null) return;
+        closeTrack(fading);
+        track.gainStep = -1f / framesFor(FADE_MILLIS);
+        fading = track;
+    }
+
+    // Decode a music file to 16-bit PCM
+    private void openStream(Track track) throws UnsupportedAudioFileException, IOException {
+        AudioInputStream encoded = AudioSystem.getAudioInputStream(track.url);
+        AudioFormat baseFormat = encoded.getFormat();
+        AudioFormat decodedFormat = new AudioFormat(
+            AudioFormat.Encoding.PCM_SIGNED,
+            baseFormat.getSampleRate(),
+            16,
+            baseFormat.getChannels(),
+            baseFormat.getChannels() * 2,
+            baseFormat.getSampleRate(),
+            false
+        );
+        track.stream = AudioSystem.getAudioInputStream(decodedFormat, encoded);
+    }
+
+    // Open the output line for a PCM format
+    private boolean openLine(AudioFormat format) {
+        if (line != null) {
+            line.close();
+            line = null;
+        }
+        try {
+            line = AudioSystem.getSourceDataLine(format);
+            line.open(format, CHUNK_FRAMES * format.getFrameSize() * 4); // Line buffer holds 4 chunks
+            lineFormat = format;
+            mix = new int[CHUNK_FRAMES * format.getChannels()];
+            out = new byte[CHUNK_FRAMES * format.getFrameSize()];
+            return true;
+        } catch (LineUnavailableException e) {
+            System.out.println("Error opening music line: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Decode one chunk from each active track, mix with fade gains and write it to the line
+    private void writeChunk() throws IOException {
+        Arrays.fill(mix, 0);
+        mixTrack(current);
+        mixTrack(fading);
+        if (fading != null && fading.gain <= 0f) {
+            closeTrack(fading); // Fade-out finished
+            fading = null;
+        }
+
+        // Convert to 16-bit little-endian with clipping
+        for (int i = 0; i < mix.length; i++) {
+            int sample = (int) (mix[i] * masterVolume);
+            if (sample > Short.MAX_VALUE) sample = Short.MAX_VALUE;
+            if (sample < Short.MIN_VALUE) sample = Short.MIN_VALUE;
+            out[i * 2] = (byte) sample;
+            out[i * 2 + 1] = (byte) (sample >> 8);
+        }
+        line.write(out, 0, out.length);
+    }
+
+    // Add one chunk of a track to the mix buffer
+    private void mixTrack(Track track) throws IOException {
+        if (track == null) return;
+        fillChunk(track);
+        int channels = lineFormat.getChannels();
+        byte[] data = track.chunk;
+        for (int frame = 0; frame < CHUNK_FRAMES; frame++) {
+            float gain = track.gain * track.volume;
+            for (int c = 0; c < channels; c++) {
+                int i = frame * channels + c;
+                int sample = (short) ((data[i * 2] & 0xFF) | (data[i * 2 + 1] << 8));
+                mix[i] += (int) (sample * gain);
+            }
+            track.gain = Math.max(0f, Math.min(1f, track.gain + track.gainStep));
+        }
+    }
+
+    // Fill a track's chunk completely, restarting the stream at the end for gapless looping
+    private void fillChunk(Track track) throws IOException {
+        int filled = 0;
+        boolean restarted = false;
+        while (filled < track.chunk.length) {
+            int read = track.stream.read(track.chunk, filled, track.chunk.length - filled);
+            if (read == -1) {
+                if (restarted) {
+                    // Empty stream - pad with silence instead of spinning
+                    Arrays.fill(track.chunk, filled, track.chunk.length, (byte) 0);
+                    return;
+                }
+                track.stream.close();
+                try {
+                    openStream(track); // Loop without draining the line
+                } catch (UnsupportedAudioFileException e) {
+                    throw new IOException(e);
+                }
+                restarted = true;
+            } else {
+                filled += read;
+            }
+        }
+    }
+
+    private void closeTrack(Track track) {
+        if (track == null || track.stream == null) return;
+        try {
+            track.stream.close();
+        } catch (IOException e) {
+            // Nothing useful to do, the stream is discarded anyway
+        }
+    }
+
+    // Number of frames in a time span at the line's sample rate
+    private float framesFor(int millis) {
+        return Math.max(1f, lineFormat.getSampleRate() * millis / 1000f);
+    }
+}
@@ -127,21 +127,22 @@ public class OptionsMenu extends JPanel {
     private void applyCommandSpeed() {
         int delay = 550 - (values[2] * 50); // Convert speed level to delay
         if (gamePanel.commandParser != null && gamePanel.commandParser.adapter != null) {
-            gamePanel.commandParser.adapter.setActionDelay(delay);
+            gamePanel.post(() -> gamePanel.commandParser.adapter.setActionDelay(delay)); // Applied on the game thread
             System.out.println("⚙️ Command speed set to level " + values[2] + " (" + delay + "ms)");
         }
     }
 
     // Applies movement speed setting to player
     private void applyMovementSpeed() {
-        gamePanel.player.speed = values[3];
+        int speed = values[3];
+        gamePanel.post(() -> gamePanel.player.speed = speed); // Applied on the game thread
         System.out.println("⚙️ Movement speed set to " + values[3] + " pixels");
     }
 
     // Returns to previous menu
     private void goBack() {
         if (gamePanel.gameState == gamePanel.optionsState) {
-            gamePanel.gameState = gamePanel.menuState;
+            gamePanel.post(gamePanel::popGameState); // Back to the menu options was opened from
         }
         System.out.println("⬅️ Returning from options...");
     }
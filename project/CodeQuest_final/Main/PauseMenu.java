@@ -8,8 +8,9 @@ import java.awt.event.*;
 public class PauseMenu extends JPanel {
 
     private GamePanel gamePanel; // Reference to game panel
-    private String[] menuOptions = {"Resume", "Restart", "Options", "Main Menu", "Exit"}; // Menu options
+    private String[] menuOptions = {"Resume", "Save", "Load", "Restart", "Options", "Main Menu", "Exit"}; // Menu options
     private int selectedOption = 0; // Currently selected option
+    private int saveSlot = 1; // Slot used by Save and Load, changed with LEFT/RIGHT
     private Font menuFont; // Font for menu items
     private Font titleFont; // Font for title
     
@@ -55,6 +56,17 @@ public class PauseMenu extends JPanel {
                     repaint();
                 }
 
+                // Choose the save slot while Save or Load is selected
+                if ((code == KeyEvent.VK_LEFT || code == KeyEvent.VK_A || code == KeyEvent.VK_RIGHT || code == KeyEvent.VK_D)
+                        && (selectedOption == 1 || selectedOption == 2)) {
+                    int step = (code == KeyEvent.VK_LEFT || code == KeyEvent.VK_A) ? -1 : 1;
+                    saveSlot = Math.floorMod(saveSlot - 1 + step, SaveManager.SLOTS) + 1;
+                    if (gamePanel.soundManager != null) {
+                        gamePanel.soundManager.playNavigationSound();
+                    }
+                    repaint();
+                }
+
                 // Select option
                 if (code == KeyEvent.VK_ENTER || code == KeyEvent.VK_SPACE) {
                     selectOption();
@@ -62,7 +74,7 @@ public class PauseMenu extends JPanel {
 
                 // Resume game
                 if (code == KeyEvent.VK_ESCAPE || code == KeyEvent.VK_P) {
-                    gamePanel.gameState = gamePanel.playState;
+                    gamePanel.postGameState(gamePanel.playState);
                     gamePanel.requestFocusInWindow();
                 }
             }
@@ -73,29 +85,41 @@ public class PauseMenu extends JPanel {
     private void selectOption() {
         switch (selectedOption) {
             case 0: // Resume
-                gamePanel.gameState = gamePanel.playState;
+                gamePanel.postGameState(gamePanel.playState);
                 gamePanel.requestFocusInWindow();
                 System.out.println("▶️ Resuming game...");
                 break;
 
-            case 1: // Restart
-                gamePanel.player.setDefault();
-                gamePanel.gameState = gamePanel.playState;
+            case 1: // Save - the snapshot is taken on the game thread, the file is written in the background
+                int slot = saveSlot;
+                gamePanel.post(() -> gamePanel.saveManager.save(slot));
+                break;
+
+            case 2: // Load - resumes play once the slot has been read
+                gamePanel.saveManager.load(saveSlot);
+                gamePanel.requestFocusInWindow();
+                break;
+
+            case 3: // Restart
+                gamePanel.post(() -> {
+                    gamePanel.player.setDefault();
+                    gamePanel.setGameState(gamePanel.playState);
+                });
                 gamePanel.requestFocusInWindow();
                 System.out.println("🔄 Restarting game...");
                 break;
 
-            case 2: // Options
-                gamePanel.gameState = gamePanel.optionsState;
+            case 4: // Options
+                gamePanel.post(() -> gamePanel.pushGameState(gamePanel.optionsState)); // Opened over this menu
                 System.out.println("⚙️ Opening options...");
                 break;
 
-            case 3: // Main Menu
-                gamePanel.gameState = gamePanel.menuState;
+            case 5: // Main Menu
+                gamePanel.postGameState(gamePanel.menuState);
                 System.out.println("🏠 Returning to main menu...");
                 break;
 
-            case 4: // Exit
+            case 6: // Exit
                 System.out.println("👋 Exiting game...");
                 System.exit(4);
                 break;
@@ -112,7 +136,7 @@ public class PauseMenu extends JPanel {
 
         // Define menu box dimensions
         int boxWidth = 400;
-        int boxHeight = 450;
+        int boxHeight = 560;
         int boxX = (getWidth() - boxWidth) / 2;
         int boxY = (getHeight() - boxHeight) / 2;
 
@@ -164,14 +188,18 @@ public class PauseMenu extends JPanel {
                 g2.setColor(new Color(220, 220, 220));
             }
 
-            // Draw menu option text
-            g2.drawString(menuOptions[i], boxX + 80, y);
+            // Draw menu option text, with the slot next to Save and Load
+            String text = menuOptions[i];
+            if (i == 1 || i == 2) {
+                text += "   < Slot " + saveSlot + " >";
+            }
+            g2.drawString(text, boxX + 80, y);
         }
 
         // Draw instructions at bottom
         g2.setFont(new Font("Arial", Font.PLAIN, 14));
         g2.setColor(new Color(180, 180, 180));
-        String instructions = "↑↓ Navigate  |  ENTER Select  |  ESC Resume";
+        String instructions = "↑↓ Navigate  |  ←→ Slot  |  ENTER Select  |  ESC Resume";
         fm = g2.getFontMetrics();
         int instX = (getWidth() - fm.stringWidth(instructions)) / 2;
         g2.drawString(instructions, instX, boxY + boxHeight - 20);
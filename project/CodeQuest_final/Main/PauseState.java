@@ -0,0 +1,26 @@
+package CodeQuest.Main;
+
+import java.awt.Graphics2D;
+
+// Pause - pushed over the play state, which keeps its world untouched until pause is popped
+// Nothing is simulated; the pause menu panel handles the keyboard
+public class PauseState implements GameState {
+    private final GamePanel gamePanel; // Reference to game panel
+
+    public PauseState(GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+    }
+
+    // The pause menu takes the keyboard focus, so key releases would not reach the key handler
+    @Override
+    public void enter() {
+        KeyHandler keyH = gamePanel.keyH;
+        keyH.UpPressed = keyH.DownPressed = keyH.LeftPressed = keyH.RightPressed = false;
+    }
+
+    @Override
+    public void render(Graphics2D g2, FrameSnapshot frame) {
+        gamePanel.drawWorld(g2); // Last published tick, frozen
+        gamePanel.gameUI.draw(g2, frame);
+    }
+}
@@ -0,0 +1,50 @@
+package CodeQuest.Main;
+
+import java.awt.Graphics2D;
+import java.awt.event.KeyEvent;
+
+// Playing the game - simulates the world every tick and draws world, HUD and message bar
+public class PlayState implements GameState {
+    private final GamePanel gamePanel; // Reference to game panel
+
+    public PlayState(GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+    }
+
+    @Override
+    public void update() {
+        gamePanel.updateWorld();
+        gamePanel.publishRenderSnapshot(); // Only published while the world moves
+    }
+
+    @Override
+    public void render(Graphics2D g2, FrameSnapshot frame) {
+        gamePanel.drawWorld(g2);
+        gamePanel.gameUI.draw(g2, frame);
+        gamePanel.messageSystem.draw(g2, frame.message); // Message bar on top of everything (if active)
+    }
+
+    @Override
+    public boolean keyPressed(int code) {
+        KeyHandler keyH = gamePanel.keyH;
+        switch (code) {
+            case KeyEvent.VK_UP:
+                keyH.UpPressed = true;
+                return true;
+            case KeyEvent.VK_DOWN:
+                keyH.DownPressed = true;
+                return true;
+            case KeyEvent.VK_LEFT:
+                keyH.LeftPressed = true;
+                return true;
+            case KeyEvent.VK_RIGHT:
+                keyH.RightPressed = true;
+                return true;
+            case KeyEvent.VK_ESCAPE:
+                gamePanel.post(() -> gamePanel.pushGameState(gamePanel.pauseState)); // Pause over the running game
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package CodeQuest.Main;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+// Everything the renderer needs to draw the world for one tick: camera plus a y-sorted list of sprites
+// Filled by the game thread, then handed to the renderer through RenderSnapshotBuffer.
+// Snapshots are pooled and their arrays reused, so publishing one every tick allocates nothing.
+public class RenderSnapshot {
+
+    // Stable ids so the same entity can be found in the previous snapshot for interpolation
+    public static final int PLAYER_ID = 0; // Objects use 1 + list index, then scenery records, then NPCs
+
+    // Moves bigger than this between two ticks are teleports (restart, level change) and are not blended
+    private static final int SNAP_DISTANCE = 128;
+
+    public long tick; // Game tick this snapshot was taken on
+    public long timeNanos; // When it was published
+    public int cameraX; // World position the view is centred on
+    public int cameraY;
+    public int count = 0; // Number of sprites stored
+
+    // One entry per sprite, indexed by slot
+    private int[] id = new int[64]; // Entity id (see PLAYER_ID)
+    private int[] x = new int[64]; // Top-left draw position in world coordinates
+    private int[] y = new int[64];
+    private int[] width = new int[64]; // Draw size in world units (screen pixels at the default scale)
+    private int[] height = new int[64];
+    private int[] sortY = new int[64]; // Draw order key (bottom entities drawn last)
+    private BufferedImage[] image = new BufferedImage[64]; // Sprite, or null to draw the fallback
+    private Color[] fallback = new Color[64]; // Rectangle colour when the sprite is missing, null for nothing
+    private int[] order = new int[64]; // Slots sorted by sortY
+
+    private int[] slotOfId = new int[0]; // Entity id -> slot + 1, 0 if the entity is not in this snapshot
+
+    // Start a new snapshot, reusing the arrays of the previous contents
+    public void begin(long tick, long timeNanos, int cameraX, int cameraY) {
+        for (int i = 0; i < count; i++) {
+            slotOfId[id[i]] = 0; // Only clear the ids that were used
+            image[i] = null; // Don't keep sprites of unloaded levels alive
+        }
+        this.tick = tick;
+        this.timeNanos = timeNanos;
+        this.cameraX = cameraX;
+        this.cameraY = cameraY;
+        count = 0;
+    }
+
+    // Add one sprite (game thread)
+    public void add(int entityId, int worldX, int worldY, int w, int h, int sortKey, BufferedImage sprite, Color fallbackColor) {
+        ensureCapacity(count + 1, entityId + 1);
+        int i = count++;
+        id[i] = entityId;
+        x[i] = worldX;
+        y[i] = worldY;
+        width[i] = w;
+        height[i] = h;
+        sortY[i] = sortKey;
+        image[i] = sprite;
+        fallback[i] = fallbackColor;
+        order[i] = i;
+        slotOfId[entityId] = i + 1;
+    }
+
+    // Sort the draw order by sortY - stable insertion sort, cheap because the order barely changes between ticks
+    public void sort() {
+        for (int i = 1; i < count; i++) {
+            int slot = order[i];
+            int key = sortY[slot];
+            int j = i - 1;
+            while (j >= 0 && sortY[order[j]] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = slot;
+        }
+    }
+
+    // Draw all sprites (renderer thread), dividing world units by pixelScale to get target pixels
+    // If previous is given, positions are blended from previous to this snapshot by alpha (0 to 1)
+    public void draw(Graphics2D g2, RenderSnapshot previous, float alpha, int viewX, int viewY, int screenX, int screenY, int pixelScale) {
+        for (int n = 0; n < count; n++) {
+            int i = order[n];
+            int drawX = x[i];
+            int drawY = y[i];
+            if (previous != null) {
+                int p = previous.slotOf(id[i]);
+                if (p >= 0 && Math.abs(drawX - previous.x[p]) < SNAP_DISTANCE && Math.abs(drawY - previous.y[p]) < SNAP_DISTANCE) {
+                    drawX = lerp(previous.x[p], drawX, alpha);
+                    drawY = lerp(previous.y[p], drawY, alpha);
+                }
+            }
+            int sx = Math.floorDiv(drawX - viewX + screenX, pixelScale);
+            int sy = Math.floorDiv(drawY - viewY + screenY, pixelScale);
+            int w = width[i] / pixelScale;
+            int h = height[i] / pixelScale;
+            if (image[i] != null) {
+                g2.drawImage(image[i], sx, sy, w, h, null); // Plain copy when the size matches the sprite
+            } else if (fallback[i] != null) {
+                g2.setColor(fallback[i]);
+                g2.fillRect(sx, sy, w, h);
+            }
+        }
+    }
+
+    // Camera position blended towards this snapshot (no blending across teleports)
+    public int blendCameraX(RenderSnapshot previous, float alpha) {
+        if (previous == null || Math.abs(cameraX - previous.cameraX) >= SNAP_DISTANCE) return cameraX;
+        return lerp(previous.cameraX, cameraX, alpha);
+    }
+
+    public int blendCameraY(RenderSnapshot previous, float alpha) {
+        if (previous == null || Math.abs(cameraY - previous.cameraY) >= SNAP_DISTANCE) return cameraY;
+        return lerp(previous.cameraY, cameraY, alpha);
+    }
+
+    // Slot of an entity in this snapshot, or -1
+    private int slotOf(int entityId) {
+        return entityId < slotOfId.length ? slotOfId[entityId] - 1 : -1;
+    }
+
+    private static int lerp(int from, int to, float alpha) {
+        return from + Math.round((to - from) * alpha);
+    }
+
+    // Grow the arrays when a tick has more sprites or higher ids than any before
+    private void ensureCapacity(int needed, int idsNeeded) {
+        if (idsNeeded > slotOfId.length) {
+            slotOfId = Arrays.copyOf(slotOfId, Math.max(idsNeeded, slotOfId.length * 2));
+        }
+        if (needed <= id.length) return;
+        int newLength = Math.max(needed, id.length * 2);
+        id = Arrays.copyOf(id, newLength);
+        x = Arrays.copyOf(x, newLength);
+        y = Arrays.copyOf(y, newLength);
+        width = Arrays.copyOf(width, newLength);
+        height = Arrays.copyOf(height, newLength);
+        sortY = Arrays.copyOf(sortY, newLength);
+        image = Arrays.copyOf(image, newLength);
+        fallback = Arrays.copyOf(fallback, newLength);
+        order = Arrays.copyOf(order, newLength);
+    }
+}
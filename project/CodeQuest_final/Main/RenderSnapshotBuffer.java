@@ -0,0 +1,51 @@
+package CodeQuest.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hands render snapshots from the game thread to the renderer
+// Keeps the last two published snapshots (for interpolation) and never lets the game thread
+// overwrite a snapshot the renderer is still drawing. Locks are only held to swap references.
+public class RenderSnapshotBuffer {
+    private final List<RenderSnapshot> pool = new ArrayList<>(); // All snapshots ever created (normally 3-4)
+    private RenderSnapshot previous; // Published one tick before latest
+    private RenderSnapshot latest; // Most recently published
+    private RenderSnapshot readPrevious; // Pair currently held by the renderer
+    private RenderSnapshot readLatest;
+
+    // Get a snapshot the game thread can fill (not published and not being drawn)
+    public synchronized RenderSnapshot beginWrite() {
+        for (RenderSnapshot snapshot : pool) {
+            if (snapshot != previous && snapshot != latest && snapshot != readPrevious && snapshot != readLatest) {
+                return snapshot;
+            }
+        }
+        RenderSnapshot snapshot = new RenderSnapshot(); // Renderer fell behind - grow the pool
+        pool.add(snapshot);
+        return snapshot;
+    }
+
+    // Make a filled snapshot the latest one
+    public synchronized void publish(RenderSnapshot snapshot) {
+        previous = latest;
+        latest = snapshot;
+    }
+
+    // Take the latest snapshot for drawing (null before the first publish); call release() when done
+    public synchronized RenderSnapshot acquire() {
+        readPrevious = previous;
+        readLatest = latest;
+        return latest;
+    }
+
+    // The snapshot published before the acquired one, or null
+    public synchronized RenderSnapshot acquiredPrevious() {
+        return readPrevious;
+    }
+
+    // Let the game thread reuse the acquired snapshots
+    public synchronized void release() {
+        readPrevious = null;
+        readLatest = null;
+    }
+}
@@ -0,0 +1,328 @@
+package CodeQuest.Main;
+
+import CodeQuest.Entity.Direction;
+import CodeQuest.Entity.HealthSystem;
+import CodeQuest.Tiles.MapObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+// Save slots for game progress
+// A save is a WorldSnapshot (player, health, keys, chests, NPCs and the list of collected keys and
+// opened chests), the seed of the game's random generator and the command history, in a small
+// versioned binary file:
+//   int magic "CQSV", short version, short level index, int object count of the level,
+//   int payload length, payload, int CRC32 of the payload
+// The game thread only takes the snapshot; encoding, disk I/O and decoding run on a background thread.
+// Files are written to a temporary file, flushed to disk and then renamed over the slot, so a crash
+// never leaves a half written save. Loading applies the decoded snapshot on the game thread, which only
+// replays the saved object changes (GamePanel.restoreWorld).
+public class SaveManager {
+    public static final int SLOTS = 3; // Slots 1 to SLOTS
+    private static final int MAGIC = 0x43515356; // "CQSV"
+    private static final int VERSION = 3; // Bump when the layout changes (2: level index, 3: only interactive objects indexed)
+    private static final int HEADER_SIZE = 16; // Bytes before the payload
+    private static final int CRC_SIZE = 4; // Bytes after the payload
+
+    private final GamePanel gamePanel;
+    private final Path directory; // Folder holding slot1.sav ... (created on first save)
+    private final ExecutorService io = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "Save I/O");
+        thread.setDaemon(true); // Never keeps the game from exiting
+        return thread;
+    });
+
+    public SaveManager(GamePanel gamePanel, Path directory) {
+        this.gamePanel = gamePanel;
+        this.directory = directory;
+    }
+
+    // ~/.codequest/saves
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".codequest", "saves");
+    }
+
+    // Save the current game into a slot (game thread) - captured now, encoded and written in the background
+    public void save(int slot) {
+        WorldSnapshot world = gamePanel.snapshotWorld();
+        long seed = gamePanel.reseedRandom();
+        List<String> history = gamePanel.commandParser.getHistory();
+        int level = gamePanel.levelManager.getCurrentIndex();
+        int objectCount = gamePanel.objM.objects.size();
+        io.execute(() -> {
+            try {
+                write(slot, encode(world, seed, history, level, objectCount));
+                report("Game saved to slot " + slot);
+            } catch (IOException e) {
+                report("Save to slot " + slot + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    // Load a slot (any thread) - read and checked in the background, then applied on the game thread
+    // A save from another level reads that level in the background too. The game continues in play state
+    public void load(int slot) {
+        LevelManager levels = gamePanel.levelManager;
+        io.execute(() -> {
+            SaveData save;
+            LevelManager.LevelData otherLevel = null;
+            try {
+                save = decode(Files.readAllBytes(slotPath(slot)));
+                if (save.level >= levels.getLevelCount()) {
+                    throw new IOException("save is for level " + (save.level + 1) + ", which is not in the course");
+                }
+                List<MapObject> objects;
+                if (save.level != levels.getCurrentIndex()) {
+                    otherLevel = levels.load(save.level);
+                    objects = otherLevel.objects;
+                } else {
+                    objects = gamePanel.objM.objects; // Replaced only when a level starts
+                }
+                checkLevel(save, objects);
+            } catch (NoSuchFileException e) {
+                report("Slot " + slot + " is empty");
+                return;
+            } catch (IOException e) {
+                report("Load of slot " + slot + " failed: " + e.getMessage());
+                return;
+            }
+            LevelManager.LevelData level = otherLevel;
+            gamePanel.post(() -> {
+                long start = System.nanoTime();
+                if (save.level != levels.getCurrentIndex()) {
+                    levels.start(level != null ? level : levels.load(save.level));
+                }
+                gamePanel.restoreWorld(save.world);
+                gamePanel.clearUndoHistory(); // Undo must not go back to the world before the load
+                gamePanel.random.setSeed(save.seed);
+                gamePanel.commandParser.setHistory(save.history);
+                gamePanel.setGameState(gamePanel.playState);
+                report("Loaded slot " + slot + " in " + (System.nanoTime() - start) / 1000 + " us");
+            });
+        });
+    }
+
+    // Check a decoded save against the objects of its level: keys and chests can't exceed what the level has
+    static void checkLevel(SaveData save, List<MapObject> objects) throws IOException {
+        if (objects.size() != save.objectCount) {
+            throw new IOException("save does not match the level's objects");
+        }
+        int keys = 0, chests = 0;
+        for (MapObject obj : objects) {
+            if (obj.isKey()) keys++;
+            if (obj.isChest()) chests++;
+        }
+        if (save.world.keys > keys) {
+            throw new IOException("bad key count " + save.world.keys);
+        }
+        if (save.world.remainingChests > chests) {
+            throw new IOException("bad chest count " + save.world.remainingChests);
+        }
+    }
+
+    // True if the slot has a save file (any thread)
+    public boolean exists(int slot) {
+        return Files.exists(slotPath(slot));
+    }
+
+    private Path slotPath(int slot) {
+        return directory.resolve("slot" + slot + ".sav");
+    }
+
+    // Status line for the player, shown in the in-game console
+    private void report(String text) {
+        if (gamePanel.console != null) {
+            gamePanel.console.println(text);
+        }
+    }
+
+    // Write a file next to the slot, force it to disk, then rename it over the slot in one step
+    private void write(int slot, byte[] data) throws IOException {
+        Files.createDirectories(directory);
+        Path target = slotPath(slot);
+        Path temp = directory.resolve("slot" + slot + ".sav.tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING); // File systems without atomic rename
+        }
+    }
+
+    // ========== Binary format ==========
+
+    static byte[] encode(WorldSnapshot world, long seed, List<String> history, int level, int objectCount) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(payloadBytes);
+        out.writeInt(world.playerX);
+        out.writeInt(world.playerY);
+        out.writeByte(world.playerDirection.code());
+        out.writeByte(world.health);
+        out.writeByte(world.keys);
+        out.writeByte(world.remainingChests);
+        out.writeLong(seed);
+
+        out.writeShort(world.npcX.length);
+        for (int i = 0; i < world.npcX.length; i++) {
+            out.writeInt(world.npcX[i]);
+            out.writeInt(world.npcY[i]);
+            out.writeByte(world.npcDirection[i]);
+        }
+
+        // Object changes oldest first, so loading can rebuild the list in order
+        int[] changes = new int[world.changeCount()];
+        WorldSnapshot.ObjectChange change = world.changes;
+        for (int i = changes.length - 1; i >= 0; i--) {
+            changes[i] = change.object;
+            change = change.previous;
+        }
+        out.writeShort(changes.length);
+        for (int object : changes) {
+            out.writeShort(object);
+        }
+
+        out.writeShort(history.size());
+        for (String command : history) {
+            byte[] text = command.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(text.length);
+            out.write(text);
+        }
+        out.flush();
+        byte[] payload = payloadBytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteArrayOutputStream fileBytes = new ByteArrayOutputStream(HEADER_SIZE + payload.length + CRC_SIZE);
+        DataOutputStream file = new DataOutputStream(fileBytes);
+        file.writeInt(MAGIC);
+        file.writeShort(VERSION);
+        file.writeShort(level);
+        file.writeInt(objectCount);
+        file.writeInt(payload.length);
+        file.write(payload);
+        file.writeInt((int) crc.getValue());
+        file.flush();
+        return fileBytes.toByteArray();
+    }
+
+    // Check the header and checksum, then read the payload; IOException explains what is wrong
+    static SaveData decode(byte[] data) throws IOException {
+        DataInputStream file = new DataInputStream(new ByteArrayInputStream(data));
+        if (data.length < HEADER_SIZE + CRC_SIZE || file.readInt() != MAGIC) {
+            throw new IOException("not a CodeQuest save");
+        }
+        int version = file.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported save version " + version);
+        }
+        int level = file.readUnsignedShort();
+        int objectCount = file.readInt();
+        int length = file.readInt();
+        if (length < 0 || length != data.length - HEADER_SIZE - CRC_SIZE) {
+            throw new IOException("save file is truncated");
+        }
+        byte[] payload = new byte[length];
+        file.readFully(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (file.readInt() != (int) crc.getValue()) {
+            throw new IOException("save file is corrupted (checksum mismatch)");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int playerX = in.readInt();
+        int playerY = in.readInt();
+        int direction = in.readUnsignedByte();
+        int health = in.readUnsignedByte();
+        int keys = in.readUnsignedByte();
+        int remainingChests = in.readUnsignedByte();
+        long seed = in.readLong();
+        if (direction > Direction.RIGHT.code()) {
+            throw new IOException("bad player direction " + direction);
+        }
+        if (health > HealthSystem.MAX_HEALTH) {
+            throw new IOException("bad health " + health);
+        }
+
+        int npcs = in.readUnsignedShort();
+        int[] npcX = new int[npcs];
+        int[] npcY = new int[npcs];
+        byte[] npcDirection = new byte[npcs];
+        for (int i = 0; i < npcs; i++) {
+            npcX[i] = in.readInt();
+            npcY[i] = in.readInt();
+            npcDirection[i] = in.readByte();
+            if (npcDirection[i] < 0 || npcDirection[i] > Direction.RIGHT.code()) {
+                throw new IOException("bad NPC direction " + npcDirection[i]);
+            }
+        }
+
+        int changeCount = in.readUnsignedShort();
+        WorldSnapshot.ObjectChange changes = null;
+        for (int i = 0; i < changeCount; i++) {
+            int object = in.readUnsignedShort();
+            if (object >= objectCount) {
+                throw new IOException("bad object index " + object);
+            }
+            changes = new WorldSnapshot.ObjectChange(object, changes);
+        }
+
+        int historySize = in.readUnsignedShort();
+        List<String> history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            int textLength = in.readInt();
+            if (textLength < 0 || textLength > in.available()) {
+                throw new IOException("bad command length " + textLength);
+            }
+            byte[] text = new byte[textLength];
+            in.readFully(text);
+            history.add(new String(text, StandardCharsets.UTF_8));
+        }
+
+        WorldSnapshot world = new WorldSnapshot(playerX, playerY, Direction.fromCode(direction), health, keys,
+                remainingChests, npcX, npcY, npcDirection, changes);
+        return new SaveData(level, objectCount, world, seed, history);
+    }
+
+    // Decoded contents of a save file
+    static final class SaveData {
+        final int level; // Level index in the course
+        final int objectCount; // Objects the level had, the object changes refer to them
+        final WorldSnapshot world;
+        final long seed; // Random generator seed at the time of saving
+        final List<String> history; // Command history, oldest first
+
+        SaveData(int level, int objectCount, WorldSnapshot world, long seed, List<String> history) {
+            this.level = level;
+            this.objectCount = objectCount;
+            this.world = world;
+            this.seed = seed;
+            this.history = history;
+        }
+    }
+}
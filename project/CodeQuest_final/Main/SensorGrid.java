@@ -0,0 +1,65 @@
+package CodeQuest.Main;
+
+import CodeQuest.Tiles.MapObject;
+
+// Tile-indexed view of the world for script sensors (blocked(), near_key())
+// One byte of flags per map tile, so every sensor is a few array lookups. Built by the game thread
+// only when objects change (key collected, chest opened, restart) and published in the FrameSnapshot;
+// instances are never modified, so the script worker can read them without locking.
+public final class SensorGrid {
+    private static final byte BLOCKED = 1; // Solid tile or solid object
+    private static final byte KEY = 2; // Key not collected yet
+
+    private final int cols, rows;
+    private final byte[] flags; // Index col + row * cols
+
+    private SensorGrid(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.flags = new byte[cols * rows];
+    }
+
+    // Build from the current tiles and objects (game thread)
+    static SensorGrid build(GamePanel gamePanel) {
+        SensorGrid grid = new SensorGrid(gamePanel.maxWorldCol, gamePanel.maxWorldRow);
+        boolean[] collisionMask = gamePanel.tileM.collisionMask; // Same tiles the collision checks use
+        for (int col = 0; col < grid.cols; col++) {
+            for (int row = 0; row < grid.rows; row++) {
+                if (collisionMask[col + row * grid.cols] || gamePanel.objM.scenery.hasSolid(col, row)) {
+                    grid.flags[col + row * grid.cols] |= BLOCKED;
+                }
+            }
+        }
+        for (MapObject obj : gamePanel.objM.objects) {
+            int col = obj.worldX / gamePanel.gameTileSize;
+            int row = obj.worldY / gamePanel.gameTileSize;
+            if (col < 0 || row < 0 || col >= grid.cols || row >= grid.rows) continue;
+            if (obj.collision) {
+                grid.flags[col + row * grid.cols] |= BLOCKED;
+            }
+            if (obj.isKey() && !obj.collected) {
+                grid.flags[col + row * grid.cols] |= KEY;
+            }
+        }
+        return grid;
+    }
+
+    // Outside the map counts as blocked
+    public boolean isBlocked(int col, int row) {
+        return !inside(col, row) || (flags[col + row * cols] & BLOCKED) != 0;
+    }
+
+    // Key on this tile or one of the eight around it
+    public boolean isKeyNear(int col, int row) {
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (inside(c, r) && (flags[c + r * cols] & KEY) != 0) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean inside(int col, int row) {
+        return col >= 0 && row >= 0 && col < cols && row < rows;
+    }
+}
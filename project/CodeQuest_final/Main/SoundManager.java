@@ -1,33 +1,52 @@
 package CodeQuest.Main;
 
 import javax.sound.sampled.*;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 // Manages all game sounds - background music and sound effects
+// Sound effects run on one daemon thread that drains a command queue and music is streamed by
+// MusicStreamer on its own thread, so game and UI code never block
 public class SoundManager {
-    private Clip musicClip; // Currently playing background music
-    private Clip sfxClip; // Sound effects clip
+    private final MusicStreamer music = new MusicStreamer(); // Streams and cross-fades background music
 
     private URL menuMusic; // Menu background music
     private URL townMusic; // Game background music
     private URL navigationSfx; // Navigation sound effect
 
-    private String currentMusic = ""; // Track currently playing music
-    private boolean isLoadingMusic = false; // Prevent multiple loading threads
+    private String currentMusic = ""; // Music requested most recently
+    private boolean musicPaused = false; // True while music is paused (e.g. pause menu)
     private long lastNavigationSoundTime = 0; // Throttle navigation sounds
     private static final long NAVIGATION_SOUND_COOLDOWN = 100; // Minimum 100ms between sounds
 
-    // Constructor: loads all sound files
+    // Sound effects: PCM decoded once, played through a small pool of pre-opened clips
+    private static final int SFX_POOL_SIZE = 4; // Max overlapping copies of one effect
+    private final Map<String, Clip[]> sfxPools = new HashMap<>(); // Effect name -> reusable clips
+    private final Map<String, Integer> sfxNextClip = new HashMap<>(); // Round-robin position per pool
+
+    // Commands from game code, executed in order on the audio thread
+    private final BlockingQueue<Runnable> commands = new ArrayBlockingQueue<>(64);
+    private final Thread audioThread;
+
+    // Constructor: finds sound files and starts the audio thread
     public SoundManager() {
         loadSounds();
+        audioThread = new Thread(this::runAudioThread, "Audio");
+        audioThread.setDaemon(true); // Make thread daemon so it doesn't prevent JVM shutdown
+        audioThread.start();
+        post(this::preloadEffects); // Decode effects before the first key press needs them
     }
 
     // Load all sound files from resources
     private void loadSounds() {
         try {
-            // Prefer .ogg files (smaller size, better quality/size ratio)
-            menuMusic = getClass().getResource("/CodeQuest/res/audio/menu.wav");
+            // Prefer .ogg files (smaller size, better quality/size ratio) - streamed, so size doesn't matter for memory
+            menuMusic = getClass().getResource("/CodeQuest/res/audio/menu.ogg");
             if (menuMusic == null) {
                 menuMusic = getClass().getResource("/CodeQuest/res/audio/menu.wav");
                 System.out.println("Using menu.wav (fallback)");
@@ -35,7 +54,7 @@ public class SoundManager {
                 System.out.println("Loaded menu.ogg");
             }
 
-            townMusic = getClass().getResource("/CodeQuest/res/audio/town.wav");
+            townMusic = getClass().getResource("/CodeQuest/res/audio/town.ogg");
             if (townMusic == null) {
                 townMusic = getClass().getResource("/CodeQuest/res/audio/town.wav");
                 System.out.println("Using town.wav (fallback)");
@@ -53,25 +72,83 @@ public class SoundManager {
         }
     }
 
-    // Play background music (loops continuously)
-    public void playMusic(String musicName) {
-        // Don't reload if already playing this music
-        if (currentMusic.equals(musicName) && musicClip != null && musicClip.isRunning()) {
-            return;
+    // Audio thread loop - runs queued commands one at a time
+    private void runAudioThread() {
+        while (true) {
+            try {
+                commands.take().run();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("Audio error: " + e.getMessage());
+            }
         }
+    }
 
-        // Don't start loading if already loading
-        if (isLoadingMusic) {
-            return;
+    // Queue a command for the audio thread without blocking (dropped if the queue is full)
+    private void post(Runnable command) {
+        if (!commands.offer(command)) {
+            System.out.println("Audio queue full, dropping sound command");
         }
+    }
 
-        // Don't reload if this music is queued to play
-        if (currentMusic.equals(musicName)) {
-            return;
+    // Decode all sound effects once and open their clip pools (audio thread)
+    private void preloadEffects() {
+        if (navigationSfx != null) {
+            loadEffect("navigation", navigationSfx);
         }
+    }
 
-        isLoadingMusic = true;
-        currentMusic = musicName;
+    // Decode one effect to PCM and open SFX_POOL_SIZE clips sharing the same data
+    private void loadEffect(String name, URL url) {
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(url)) {
+            AudioFormat format = stream.getFormat();
+            byte[] pcm = readAll(stream);
+            Clip[] pool = new Clip[SFX_POOL_SIZE];
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = AudioSystem.getClip();
+                pool[i].open(format, pcm, 0, pcm.length);
+            }
+            sfxPools.put(name, pool);
+            sfxNextClip.put(name, 0);
+        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
+            System.out.println("Error loading sound effect " + name + ": " + e.getMessage());
+        }
+    }
+
+    // Play a preloaded effect on the next clip of its pool (audio thread)
+    private void playEffect(String name) {
+        Clip[] pool = sfxPools.get(name);
+        if (pool == null) return; // Effect failed to load
+        int index = sfxNextClip.get(name);
+        sfxNextClip.put(name, (index + 1) % pool.length);
+
+        Clip clip = pool[index];
+        clip.stop(); // Restart the oldest copy if all clips are busy
+        clip.setFramePosition(0);
+        clip.start();
+    }
+
+    // Read a whole audio stream into memory
+    private static byte[] readAll(AudioInputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    // Play background music (loops continuously, cross-fades from the previous track)
+    public void playMusic(String musicName) {
+        if (currentMusic.equals(musicName)) {
+            if (musicPaused) {
+                musicPaused = false;
+                music.resume(); // Continue where it was paused instead of reloading
+            }
+            return; // Already playing
+        }
 
         URL soundURL = null;
         switch (musicName) {
@@ -85,72 +162,32 @@ public class SoundManager {
 
         if (soundURL == null) {
             System.out.println("Sound not found: " + musicName);
-            isLoadingMusic = false;
             return;
         }
 
-        // Stop current music before loading new one
-        stopMusic();
+        currentMusic = musicName;
+        musicPaused = false;
+        // Set volume based on music type
+        float volume = musicName.equals("menu") ? 0.4f : 0.7f; // Lower volume for menu music
+        music.play(musicName, soundURL, volume);
+    }
 
-        // Load music asynchronously to avoid lag
-        final URL finalSoundURL = soundURL;
-        Thread musicThread = new Thread(() -> {
-            try {
-                AudioInputStream audioStream = AudioSystem.getAudioInputStream(finalSoundURL);
-
-                // Get audio format for potential conversion
-                AudioFormat baseFormat = audioStream.getFormat();
-
-                // Convert to PCM format if needed (reduces CPU usage)
-                AudioFormat decodedFormat = new AudioFormat(
-                    AudioFormat.Encoding.PCM_SIGNED,
-                    baseFormat.getSampleRate(),
-                    16,
-                    baseFormat.getChannels(),
-                    baseFormat.getChannels() * 2,
-                    baseFormat.getSampleRate(),
-                    false
-                );
-
-                AudioInputStream decodedStream = AudioSystem.getAudioInputStream(decodedFormat, audioStream);
-
-                musicClip = AudioSystem.getClip();
-                musicClip.open(decodedStream);
-
-                // Set volume based on music type
-                if (musicName.equals("menu")) {
-                    setMusicVolume(0.4f); // Lower volume for menu music
-                } else {
-                    setMusicVolume(0.7f); // Normal volume for game music
-                }
-
-                musicClip.loop(Clip.LOOP_CONTINUOUSLY); // Loop forever
-                musicClip.start();
-            } catch (UnsupportedAudioFileException e) {
-                System.out.println("Music file format not supported (likely .ogg). Continuing without background music.");
-                System.out.println("For better performance, convert audio files:");
-                System.out.println("  ffmpeg -i " + musicName + ".ogg -ar 22050 -ac 2 -b:a 128k " + musicName + ".wav");
-            } catch (IOException | LineUnavailableException e) {
-                System.out.println("Error loading music: " + e.getMessage());
-            } finally {
-                isLoadingMusic = false;
-            }
-        });
-        musicThread.setDaemon(true); // Make thread daemon so it doesn't prevent JVM shutdown
-        musicThread.start();
+    // Pause background music, keeping its position
+    public void pauseMusic() {
+        if (!currentMusic.isEmpty() && !musicPaused) {
+            musicPaused = true;
+            music.pause();
+        }
     }
 
     // Stop background music
     public void stopMusic() {
-        if (musicClip != null) {
-            if (musicClip.isRunning()) {
-                musicClip.stop();
-            }
-            if (musicClip.isOpen()) {
-                musicClip.close();
-            }
-            musicClip = null;
+        if (currentMusic.isEmpty()) {
+            return; // Already stopped
         }
+        currentMusic = "";
+        musicPaused = false;
+        music.stop();
     }
 
     // Play sound effect (navigation sound)
@@ -164,37 +201,11 @@ public class SoundManager {
         }
         lastNavigationSoundTime = currentTime;
 
-        // Play sound in separate thread to avoid blocking
-        new Thread(() -> {
-            try {
-                AudioInputStream audioStream = AudioSystem.getAudioInputStream(navigationSfx);
-                Clip clip = AudioSystem.getClip();
-                clip.open(audioStream);
-
-                // Auto-close clip when finished
-                clip.addLineListener(event -> {
-                    if (event.getType() == LineEvent.Type.STOP) {
-                        clip.close();
-                    }
-                });
-
-                clip.start();
-            } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-                System.out.println("Error playing navigation sound: " + e.getMessage());
-            }
-        }).start();
+        post(() -> playEffect("navigation")); // No thread, file access or clip allocation here
     }
 
     // Set music volume (0.0 to 1.0)
     public void setMusicVolume(float volume) {
-        if (musicClip != null && musicClip.isOpen()) {
-            try {
-                FloatControl gainControl = (FloatControl) musicClip.getControl(FloatControl.Type.MASTER_GAIN);
-                float dB = (float) (Math.log(volume) / Math.log(10.0) * 20.0);
-                gainControl.setValue(dB);
-            } catch (Exception e) {
-                System.out.println("Error setting volume: " + e.getMessage());
-            }
-        }
+        music.setVolume(volume);
     }
 }
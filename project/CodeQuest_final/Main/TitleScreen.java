@@ -31,7 +31,7 @@ public class TitleScreen extends JPanel {
             @Override
             public void keyPressed(KeyEvent e) {
                 if (e.getKeyCode() == KeyEvent.VK_ENTER) {
-                    gamePanel.gameState = gamePanel.titleState + 1; // Go to main menu
+                    gamePanel.postGameState(gamePanel.titleState + 1); // Go to main menu
                 }
             }
         });
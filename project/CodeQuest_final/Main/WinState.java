@@ -0,0 +1,26 @@
+package CodeQuest.Main;
+
+import java.awt.Graphics2D;
+
+// Victory screen - shown when every chest has been opened
+public class WinState extends EndScreenState {
+
+    public WinState(GamePanel gamePanel) {
+        super(gamePanel);
+    }
+
+    // The whole course is done, so play it again from the first level
+    @Override
+    protected void restart() {
+        gamePanel.post(() -> {
+            gamePanel.healthSystem.resetHealth(); // Before the first level snapshots its initial state
+            gamePanel.levelManager.restartCourse();
+            gamePanel.setGameState(gamePanel.playState);
+        });
+    }
+
+    @Override
+    public void render(Graphics2D g2, FrameSnapshot frame) {
+        gamePanel.healthSystem.drawWinScreen(g2, gamePanel.screenWidth, gamePanel.screenHeight, selectedOption);
+    }
+}
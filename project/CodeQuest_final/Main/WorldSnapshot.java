@@ -0,0 +1,57 @@
+package CodeQuest.Main;
+
+import CodeQuest.Entity.Direction;
+
+// Immutable copy of the dynamic world state, on top of the base world (tiles and objects as loaded)
+// Collected keys and opened chests are a persistent list shared by all snapshots taken from the same
+// play-through, so taking a snapshot is O(1) and restoring one (GamePanel.restoreWorld) only undoes
+// and replays the changes the two states do not share. Snapshots can be kept, passed to other threads
+// and restored any number of times: instant restart, undo of the last command, checkpoints.
+public final class WorldSnapshot {
+    public final int playerX; // Player world position
+    public final int playerY;
+    public final Direction playerDirection; // Facing direction
+    public final int health; // Current health
+    public final int keys; // Keys held
+    public final int remainingChests; // Chests still closed
+    final int[] npcX; // NPC positions by crowd index (a handful of NPCs, copied)
+    final int[] npcY;
+    final byte[] npcDirection; // NPC facing direction codes
+    final ObjectChange changes; // Newest object change first, null if no object has changed
+
+    WorldSnapshot(int playerX, int playerY, Direction playerDirection, int health, int keys, int remainingChests,
+                  int[] npcX, int[] npcY, byte[] npcDirection, ObjectChange changes) {
+        this.playerX = playerX;
+        this.playerY = playerY;
+        this.playerDirection = playerDirection;
+        this.health = health;
+        this.keys = keys;
+        this.remainingChests = remainingChests;
+        this.npcX = npcX;
+        this.npcY = npcY;
+        this.npcDirection = npcDirection;
+        this.changes = changes;
+    }
+
+    // Number of objects collected or opened since the base world
+    public int changeCount() {
+        return ObjectChange.count(changes);
+    }
+
+    // One collected key or opened chest, linked to the changes made before it (never modified)
+    static final class ObjectChange {
+        final int object; // Index in ObjectManager.objects
+        final ObjectChange previous; // Earlier change, null for the first one
+        final int count; // Changes in the list ending here, this one included
+
+        ObjectChange(int object, ObjectChange previous) {
+            this.object = object;
+            this.previous = previous;
+            this.count = count(previous) + 1;
+        }
+
+        static int count(ObjectChange change) {
+            return change == null ? 0 : change.count;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package CodeQuest.Script;
+
+// Compiled integer expression - a tree of nodes evaluated directly, no re-parsing
+// Truth values follow Python: 0 is false, anything else is true; comparisons give 1 or 0
+abstract class Expr {
+
+    abstract int eval(Frame f);
+
+    static final int ADD = 0, SUB = 1, MUL = 2, DIV = 3, MOD = 4, POW = 5;
+    static final int EQ = 6, NE = 7, LT = 8, LE = 9, GT = 10, GE = 11;
+
+    // Values are 32-bit ints; a result that does not fit is an error, never a wrapped-around value
+    static ScriptError overflow(int line) {
+        return new ScriptError("OverflowError", line, "integer result too large");
+    }
+
+    // Number, True or False
+    static final class Const extends Expr {
+        final int value;
+
+        Const(int value) {
+            this.value = value;
+        }
+
+        @Override
+        int eval(Frame f) {
+            return value;
+        }
+    }
+
+    // Variable of the current function call, a top level variable or a read-only game variable
+    static final class Name extends Expr {
+        final String name;
+        final int line;
+        boolean global; // Set by the compiler once all assignments are known
+        boolean host; // Game variable (x, y, health) - read from the host every time
+        int slot;
+
+        Name(String name, int line) {
+            this.name = name;
+            this.line = line;
+        }
+
+        @Override
+        int eval(Frame f) {
+            if (host) {
+                return f.run.host.getVariable(name);
+            }
+            Frame frame = global ? f.run.globals : f;
+            if (!frame.defined[slot]) {
+                throw new ScriptError("NameError", line, "name '" + name + "' is not defined");
+            }
+            return frame.slots[slot];
+        }
+    }
+
+    // -x, which does not fit for the smallest int
+    static final class Negate extends Expr {
+        final Expr operand;
+        final int line;
+
+        Negate(Expr operand, int line) {
+            this.operand = operand;
+            this.line = line;
+        }
+
+        @Override
+        int eval(Frame f) {
+            try {
+                return Math.negateExact(operand.eval(f));
+            } catch (ArithmeticException e) {
+                throw overflow(line);
+            }
+        }
+    }
+
+    static final class Not extends Expr {
+        final Expr operand;
+
+        Not(Expr operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        int eval(Frame f) {
+            return operand.eval(f) == 0 ? 1 : 0;
+        }
+    }
+
+    // Arithmetic with Python integer semantics (// and % round towards negative infinity)
+    // Values are 32-bit ints, so a result that does not fit raises OverflowError instead of wrapping around
+    static final class Binary extends Expr {
+        final int op;
+        final Expr left, right;
+        final int line;
+
+        Binary(int op, Expr left, Expr right, int line) {
+            this.op = op;
+            this.left = left;
+            this.right = right;
+            this.line = line;
+        }
+
+        @Override
+        int eval(Frame f) {
+            int a = left.eval(f);
+            int b = right.eval(f);
+            try {
+                switch (op) {
+                    case ADD: return Math.addExact(a, b);
+                    case SUB: return Math.subtractExact(a, b);
+                    case MUL: return Math.multiplyExact(a, b);
+                    case POW: return power(a, b);
+                    default: break;
+                }
+            } catch (ArithmeticException e) {
+                throw overflow(line);
+            }
+            switch (op) {
+                case DIV:
+                    if (b == 0) throw new ScriptError("ZeroDivisionError", line, "integer division by zero");
+                    if (a == Integer.MIN_VALUE && b == -1) throw overflow(line); // The one quotient that does not fit
+                    return Math.floorDiv(a, b);
+                default: // MOD
+                    if (b == 0) throw new ScriptError("ZeroDivisionError", line, "integer modulo by zero");
+                    return Math.floorMod(a, b);
+            }
+        }
+
+        // Exponentiation by squaring - at most about 31 squarings for an int exponent, however large
+        private int power(int base, int exponent) {
+            if (exponent < 0) throw new ScriptError("ValueError", line, "negative exponents need fractions, only integers are supported");
+            if (base == 0 || base == 1) return exponent == 0 ? 1 : base;
+            if (base == -1) return (exponent & 1) == 0 ? 1 : -1;
+            int result = 1;
+            while (true) {
+                if ((exponent & 1) != 0) {
+                    result = Math.multiplyExact(result, base);
+                }
+                exponent >>= 1;
+                if (exponent == 0) return result;
+                base = Math.multiplyExact(base, base); // |base| >= 2, so a large exponent overflows within 31 steps
+            }
+        }
+    }
+
+    // Comparison chain: a < b <= c is a < b and b <= c, each operand evaluated once
+    static final class Compare extends Expr {
+        final int[] ops;
+        final Expr[] operands; // One more than ops
+
+        Compare(int[] ops, Expr[] operands) {
+            this.ops = ops;
+            this.operands = operands;
+        }
+
+        @Override
+        int eval(Frame f) {
+            int a = operands[0].eval(f);
+            for (int i = 0; i < ops.length; i++) {
+                int b = operands[i + 1].eval(f);
+                boolean holds;
+                switch (ops[i]) {
+                    case EQ: holds = a == b; break;
+                    case NE: holds = a != b; break;
+                    case LT: holds = a < b; break;
+                    case LE: holds = a <= b; break;
+                    case GT: holds = a > b; break;
+                    default: holds = a >= b; break;
+                }
+                if (!holds) return 0;
+                a = b;
+            }
+            return 1;
+        }
+    }
+
+    // a and b, a or b - short circuit and give the deciding operand, like Python
+    static final class Logic extends Expr {
+        final boolean and;
+        final Expr left, right;
+
+        Logic(boolean and, Expr left, Expr right) {
+            this.and = and;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int eval(Frame f) {
+            int a = left.eval(f);
+            if (and ? a == 0 : a != 0) return a;
+            return right.eval(f);
+        }
+    }
+
+    // Call of a def in the script
+    static final class Call extends Expr {
+        final String name;
+        final Expr[] args;
+        final int line;
+        Function function; // Linked after the whole program is compiled
+
+        Call(String name, Expr[] args, int line) {
+            this.name = name;
+            this.args = args;
+            this.line = line;
+        }
+
+        @Override
+        int eval(Frame f) {
+            Interpreter run = f.run;
+            Frame callee = new Frame(run, function.localCount);
+            for (int i = 0; i < args.length; i++) {
+                callee.slots[i] = args[i].eval(f);
+                callee.defined[i] = true;
+            }
+            if (++run.depth > Interpreter.MAX_DEPTH) {
+                throw new ScriptError("RecursionError", line, "maximum recursion depth exceeded in " + name + "()");
+            }
+            try {
+                function.body.exec(callee);
+            } finally {
+                run.depth--;
+            }
+            return callee.returnValue;
+        }
+    }
+
+    // abs(), min() and max()
+    static final class Builtin extends Expr {
+        final String name;
+        final Expr[] args;
+        final int line;
+
+        Builtin(String name, Expr[] args, int line) {
+            this.name = name;
+            this.args = args;
+            this.line = line;
+        }
+
+        @Override
+        int eval(Frame f) {
+            int result = args[0].eval(f);
+            if (name.equals("abs")) {
+                try {
+                    return Math.absExact(result);
+                } catch (ArithmeticException e) {
+                    throw overflow(line);
+                }
+            }
+            for (int i = 1; i < args.length; i++) {
+                int value = args[i].eval(f);
+                result = name.equals("min") ? Math.min(result, value) : Math.max(result, value);
+            }
+            return result;
+        }
+    }
+
+    // Game function (player.moveup(), blocked(UP), ...)
+    // Actions may suspend the program until the game has carried them out; a host that rejects
+    // an argument throws IllegalArgumentException, reported as a ValueError on this line
+    static final class HostCall extends Expr {
+        final String name;
+        final Expr[] args;
+        final boolean action; // Queues something in the game, counted against the action limit
+        final int line;
+
+        HostCall(String name, Expr[] args, boolean action, int line) {
+            this.name = name;
+            this.args = args;
+            this.action = action;
+            this.line = line;
+        }
+
+        @Override
+        int eval(Frame f) {
+            if (action) {
+                f.run.action(line);
+            }
+            int[] values = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                values[i] = args[i].eval(f);
+            }
+            long start = System.nanoTime();
+            try {
+                return f.run.host.call(name, values);
+            } catch (IllegalArgumentException e) {
+                throw new ScriptError("ValueError", line, e.getMessage());
+            } finally {
+                f.run.suspended(System.nanoTime() - start);
+            }
+        }
+    }
+}
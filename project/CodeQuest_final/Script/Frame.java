@@ -0,0 +1,16 @@
+package CodeQuest.Script;
+
+// Variable slots of one function call, or of the global scope
+// Names are turned into slot numbers by the compiler, so no lookups happen while running
+final class Frame {
+    final Interpreter run; // Program run this frame belongs to
+    final int[] slots; // Variable values
+    final boolean[] defined; // Whether each variable has been assigned yet
+    int returnValue; // Set by a return statement
+
+    Frame(Interpreter run, int size) {
+        this.run = run;
+        this.slots = new int[size];
+        this.defined = new boolean[size];
+    }
+}
@@ -0,0 +1,14 @@
+package CodeQuest.Script;
+
+// A compiled def: parameters take the first local slots
+final class Function {
+    final String name;
+    final int paramCount;
+    int localCount; // Parameters plus local variables, known once the body is compiled
+    Stmt body;
+
+    Function(String name, int paramCount) {
+        this.name = name;
+        this.paramCount = paramCount;
+    }
+}
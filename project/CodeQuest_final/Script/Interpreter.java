@@ -0,0 +1,59 @@
+package CodeQuest.Script;
+
+import java.util.function.BooleanSupplier;
+
+// State of one program run: the host, global variables and the limits that keep a
+// student's infinite loop or endless recursion from hanging the game
+final class Interpreter {
+    static final int MAX_DEPTH = 200; // Nested function calls
+    private static final int CLOCK_CHECK_INTERVAL = 1024; // Steps between deadline and cancellation checks
+
+    final ScriptHost host; // Game functions and variables
+    final Frame globals; // Top level variables
+    private final ScriptLimits limits;
+    private final BooleanSupplier cancelled; // True once the run should stop
+    private long deadline; // System.nanoTime() the run has to finish by, moved on while suspended
+    private long steps = 0;
+    private int actions = 0; // Game actions queued so far
+    int depth = 0; // Current call depth
+
+    Interpreter(ScriptHost host, int globalCount, ScriptLimits limits, BooleanSupplier cancelled) {
+        this.host = host;
+        this.globals = new Frame(this, globalCount);
+        this.limits = limits;
+        this.cancelled = cancelled;
+        this.deadline = System.nanoTime() + limits.timeoutMillis * 1_000_000;
+    }
+
+    // Count one step of work
+    void step(int line) {
+        if (++steps > limits.maxSteps) {
+            throw new ScriptError("TimeoutError", line, "program stopped after " + limits.maxSteps + " steps (endless loop?)");
+        }
+        if (steps % CLOCK_CHECK_INTERVAL == 0) {
+            checkInterrupted(line);
+        }
+    }
+
+    // Count one queued game action
+    void action(int line) {
+        if (++actions > limits.maxActions) {
+            throw new ScriptError("MemoryError", line, "program queued more than " + limits.maxActions + " actions");
+        }
+        checkInterrupted(line); // Actions are rare, so a cancelled program never queues another
+    }
+
+    // Time spent suspended in the game (waiting for a move) is not running time
+    void suspended(long nanos) {
+        deadline += nanos;
+    }
+
+    private void checkInterrupted(int line) {
+        if (cancelled.getAsBoolean()) {
+            throw new ScriptError("KeyboardInterrupt", line, "program stopped");
+        }
+        if (System.nanoTime() - deadline > 0) {
+            throw new ScriptError("TimeoutError", line, "program ran longer than " + limits.timeoutMillis + " ms");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package CodeQuest.Script;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Splits script source into tokens
+// Indentation at the start of each line becomes INDENT and DEDENT tokens, like in Python,
+// so the parser can treat blocks like brackets. Lines inside ( ) are joined.
+final class Lexer {
+
+    enum Kind { NAME, NUMBER, STRING, OP, NEWLINE, INDENT, DEDENT, END }
+
+    static final class Token {
+        final Kind kind;
+        final String text; // Name, digits, string contents or operator
+        final int line; // Source line (1-based)
+
+        Token(Kind kind, String text, int line) {
+            this.kind = kind;
+            this.text = text;
+            this.line = line;
+        }
+
+        boolean is(String op) {
+            return (kind == Kind.OP || kind == Kind.NAME) && text.equals(op);
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case NEWLINE: return "end of line";
+                case INDENT: return "indent";
+                case DEDENT: return "dedent";
+                case END: return "end of program";
+                case STRING: return "string";
+                default: return "'" + text + "'";
+            }
+        }
+    }
+
+    // Operators, longest first so "//=" wins over "//" and "/"
+    private static final String[] OPERATORS = {
+        "//=", "**", "//", "==", "!=", "<=", ">=", "+=", "-=", "*=", "%=",
+        "+", "-", "*", "/", "%", "<", ">", "=", "(", ")", ",", ":", ".", ";"
+    };
+
+    private Lexer() {
+    }
+
+    static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        List<Integer> indents = new ArrayList<>(); // Open indentation levels
+        indents.add(0);
+        int parenDepth = 0;
+        String[] lines = source.split("\n", -1);
+
+        for (int n = 0; n < lines.length; n++) {
+            String text = lines[n];
+            int lineNumber = n + 1;
+
+            // Measure indentation (tabs go to the next multiple of 8, as in Python)
+            int pos = 0;
+            int indent = 0;
+            while (pos < text.length() && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+                indent = text.charAt(pos) == '\t' ? (indent / 8 + 1) * 8 : indent + 1;
+                pos++;
+            }
+            String rest = text.substring(pos).trim();
+            if (rest.isEmpty() || rest.startsWith("#")) {
+                continue; // Blank lines and comments don't change indentation
+            }
+
+            // Open or close blocks (not inside brackets, where lines are joined)
+            if (parenDepth == 0) {
+                int current = indents.get(indents.size() - 1);
+                if (indent > current) {
+                    indents.add(indent);
+                    tokens.add(new Token(Kind.INDENT, "", lineNumber));
+                } else {
+                    while (indent < indents.get(indents.size() - 1)) {
+                        indents.remove(indents.size() - 1);
+                        tokens.add(new Token(Kind.DEDENT, "", lineNumber));
+                    }
+                    if (indent != indents.get(indents.size() - 1)) {
+                        throw new ScriptError("IndentationError", lineNumber, "unindent does not match any outer indentation level");
+                    }
+                }
+            }
+
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (c == ' ' || c == '\t' || c == '\r') {
+                    pos++;
+                } else if (c == '#') {
+                    break; // Comment to end of line
+                } else if (Character.isDigit(c)) {
+                    int start = pos;
+                    while (pos < text.length() && Character.isDigit(text.charAt(pos))) pos++;
+                    tokens.add(new Token(Kind.NUMBER, text.substring(start, pos), lineNumber));
+                } else if (Character.isLetter(c) || c == '_') {
+                    int start = pos;
+                    while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) pos++;
+                    tokens.add(new Token(Kind.NAME, text.substring(start, pos), lineNumber));
+                } else if (c == '"' || c == '\'') {
+                    pos = readString(text, pos, lineNumber, tokens);
+                } else {
+                    String op = matchOperator(text, pos);
+                    if (op == null) {
+                        throw new ScriptError("SyntaxError", lineNumber, "invalid character '" + c + "'");
+                    }
+                    if (op.equals("(")) parenDepth++;
+                    if (op.equals(")")) parenDepth = Math.max(0, parenDepth - 1);
+                    tokens.add(new Token(Kind.OP, op, lineNumber));
+                    pos += op.length();
+                }
+            }
+            if (parenDepth == 0) {
+                tokens.add(new Token(Kind.NEWLINE, "", lineNumber));
+            }
+        }
+
+        int lastLine = Math.max(1, lines.length);
+        if (parenDepth > 0) {
+            throw new ScriptError("SyntaxError", lastLine, "'(' was never closed");
+        }
+        for (int i = 1; i < indents.size(); i++) {
+            tokens.add(new Token(Kind.DEDENT, "", lastLine));
+        }
+        tokens.add(new Token(Kind.END, "", lastLine));
+        return tokens;
+    }
+
+    // Read a quoted string starting at pos, returns the position after the closing quote
+    private static int readString(String text, int pos, int lineNumber, List<Token> tokens) {
+        char quote = text.charAt(pos++);
+        StringBuilder value = new StringBuilder();
+        while (pos < text.length() && text.charAt(pos) != quote) {
+            char c = text.charAt(pos++);
+            if (c == '\\' && pos < text.length()) {
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 't': value.append('\t'); break;
+                    default: value.append(escaped); break; // \\ \' \"
+                }
+            } else {
+                value.append(c);
+            }
+        }
+        if (pos >= text.length()) {
+            throw new ScriptError("SyntaxError", lineNumber, "unterminated string");
+        }
+        tokens.add(new Token(Kind.STRING, value.toString(), lineNumber));
+        return pos + 1;
+    }
+
+    private static String matchOperator(String text, int pos) {
+        for (String op : OPERATORS) {
+            if (text.startsWith(op, pos)) {
+                return op;
+            }
+        }
+        return null;
+    }
+}
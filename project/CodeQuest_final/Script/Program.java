@@ -0,0 +1,30 @@
+package CodeQuest.Script;
+
+import java.util.function.BooleanSupplier;
+
+// A compiled script, ready to run any number of times without parsing again
+public class Program {
+    private final Stmt main; // Top level statements
+    private final int globalCount; // Top level variable slots
+
+    Program(Stmt main, int globalCount) {
+        this.main = main;
+        this.globalCount = globalCount;
+    }
+
+    // Compile source code, names are checked against the host's variables and functions
+    public static Program compile(String source, ScriptHost host) {
+        return new ScriptCompiler(source, host).compile();
+    }
+
+    // Run the program on the calling thread with the default limits, throws ScriptError on runtime errors
+    public void run(ScriptHost host) {
+        run(host, ScriptLimits.DEFAULT, () -> false);
+    }
+
+    // Run the program until it ends, breaks a limit or cancelled returns true
+    public void run(ScriptHost host, ScriptLimits limits, BooleanSupplier cancelled) {
+        Interpreter interpreter = new Interpreter(host, globalCount, limits, cancelled);
+        main.exec(interpreter.globals);
+    }
+}
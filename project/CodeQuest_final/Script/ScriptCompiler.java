@@ -0,0 +1,556 @@
+package CodeQuest.Script;
+
+import CodeQuest.Script.Lexer.Kind;
+import CodeQuest.Script.Lexer.Token;
+
+import java.util.*;
+
+// Recursive descent compiler for the Python subset used by CodeQuest:
+//   statements  for/while/if/elif/else with nested indented blocks, def/return, global,
+//               break, continue, pass, =, +=, -=, *=, //=, %=, print(...)
+//   expressions integers, True/False, + - * // % ** (/ is integer division too),
+//               comparisons (chained), and/or/not, calls of defs, abs/min/max and game functions
+// The source is parsed once into Stmt/Expr trees with variables already turned into slots.
+final class ScriptCompiler {
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+        "if", "elif", "else", "for", "in", "while", "def", "return", "break", "continue",
+        "pass", "global", "and", "or", "not", "True", "False", "print"));
+
+    // Variables of the top level or of one def
+    private static final class Scope {
+        final Function function; // null for the top level
+        final Map<String, Integer> slots = new HashMap<>(); // Assigned names -> slot
+        final Set<String> globalNames = new HashSet<>(); // Names declared with global
+        final List<Expr.Name> reads = new ArrayList<>(); // Resolved when the whole program is known
+        int loopDepth = 0; // Loops around the statement being compiled
+
+        Scope(Function function) {
+            this.function = function;
+        }
+
+        int slot(String name) {
+            Integer slot = slots.get(name);
+            if (slot == null) {
+                slot = slots.size();
+                slots.put(name, slot);
+            }
+            return slot;
+        }
+    }
+
+    private final List<Token> tokens;
+    private final ScriptHost host;
+    private int pos = 0;
+
+    private final Scope globalScope = new Scope(null);
+    private Scope scope = globalScope; // Scope being compiled
+    private final List<Scope> scopes = new ArrayList<>(Collections.singletonList(globalScope));
+    private final Set<String> defNames = new HashSet<>(); // Every def in the program, so calls may come first
+    private final Map<String, Function> functions = new HashMap<>();
+    private final List<Expr.Call> calls = new ArrayList<>(); // Linked to their Function at the end
+
+    ScriptCompiler(String source, ScriptHost host) {
+        this.tokens = Lexer.tokenize(source);
+        this.host = host;
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            if (tokens.get(i).kind == Kind.NAME && tokens.get(i).text.equals("def") && tokens.get(i + 1).kind == Kind.NAME) {
+                defNames.add(tokens.get(i + 1).text);
+            }
+        }
+    }
+
+    Program compile() {
+        List<Stmt> body = new ArrayList<>();
+        while (peek().kind != Kind.END) {
+            statement(body);
+        }
+        resolveNames();
+        for (Expr.Call call : calls) {
+            Function function = functions.get(call.name);
+            if (call.args.length != function.paramCount) {
+                throw new ScriptError("TypeError", call.line, call.name + "() takes " + function.paramCount
+                        + " argument" + (function.paramCount == 1 ? "" : "s") + " but " + call.args.length + " were given");
+            }
+            call.function = function;
+        }
+        return new Program(new Stmt.Block(1, body.toArray(new Stmt[0])), globalScope.slots.size());
+    }
+
+    // ========== Statements ==========
+
+    private void statement(List<Stmt> out) {
+        Token t = peek();
+        if (t.kind == Kind.INDENT) {
+            throw new ScriptError("IndentationError", t.line, "unexpected indent");
+        }
+        if (t.is("if")) {
+            out.add(ifStatement());
+        } else if (t.is("for")) {
+            out.add(forStatement());
+        } else if (t.is("while")) {
+            out.add(whileStatement());
+        } else if (t.is("def")) {
+            defStatement();
+        } else {
+            simpleStatements(out);
+        }
+    }
+
+    // One or more simple statements separated by ; and ending the line
+    private void simpleStatements(List<Stmt> out) {
+        out.add(simpleStatement());
+        while (accept(";") && peek().kind != Kind.NEWLINE && peek().kind != Kind.END) { // Trailing ; is allowed
+            out.add(simpleStatement());
+        }
+        if (peek().kind != Kind.END) {
+            expect(Kind.NEWLINE);
+        }
+    }
+
+    private Stmt simpleStatement() {
+        Token t = next();
+        switch (t.kind == Kind.NAME ? t.text : "") {
+            case "pass":
+                return new Stmt.Jump(t.line, Stmt.NORMAL);
+            case "break":
+            case "continue":
+                if (scope.loopDepth == 0) {
+                    throw new ScriptError("SyntaxError", t.line, "'" + t.text + "' outside loop");
+                }
+                return new Stmt.Jump(t.line, t.text.equals("break") ? Stmt.BREAK : Stmt.CONTINUE);
+            case "return":
+                if (scope.function == null) {
+                    throw new ScriptError("SyntaxError", t.line, "'return' outside function");
+                }
+                boolean bare = peek().kind == Kind.NEWLINE || peek().kind == Kind.END || peek().is(";");
+                return new Stmt.Return(t.line, bare ? null : expression());
+            case "global":
+                do {
+                    scope.globalNames.add(name().text);
+                } while (accept(","));
+                return new Stmt.Jump(t.line, Stmt.NORMAL);
+            case "print":
+                return printStatement(t);
+        }
+
+        // Assignment
+        if (t.kind == Kind.NAME && !KEYWORDS.contains(t.text)) {
+            Token op = peek();
+            int binary = -1;
+            switch (op.text) {
+                case "=": binary = -2; break;
+                case "+=": binary = Expr.ADD; break;
+                case "-=": binary = Expr.SUB; break;
+                case "*=": binary = Expr.MUL; break;
+                case "//=": binary = Expr.DIV; break;
+                case "%=": binary = Expr.MOD; break;
+            }
+            if (op.kind == Kind.OP && binary != -1) {
+                next();
+                Expr value = expression();
+                if (binary != -2) {
+                    value = new Expr.Binary(binary, read(t), value, t.line); // x += 1 is x = x + 1
+                }
+                boolean global = isGlobalTarget(t.text);
+                int slot = (global ? globalScope : scope).slot(t.text);
+                return new Stmt.Assign(t.line, global, slot, value);
+            }
+        }
+
+        // Expression statement (usually a call)
+        pos--;
+        Expr expr = expression();
+        return new Stmt.Eval(t.line, expr);
+    }
+
+    private Stmt printStatement(Token t) {
+        expect("(");
+        List<Object> parts = new ArrayList<>();
+        if (!accept(")")) {
+            do {
+                if (peek().kind == Kind.STRING) {
+                    parts.add(next().text);
+                } else {
+                    parts.add(expression());
+                }
+            } while (accept(","));
+            expect(")");
+        }
+        return new Stmt.Print(t.line, parts.toArray());
+    }
+
+    private Stmt ifStatement() {
+        Token t = next(); // if
+        List<Expr> conditions = new ArrayList<>();
+        List<Stmt> branches = new ArrayList<>();
+        conditions.add(expression());
+        branches.add(suite());
+        Stmt orElse = null;
+        while (true) {
+            if (accept("elif")) {
+                conditions.add(expression());
+                branches.add(suite());
+            } else if (accept("else")) {
+                orElse = suite();
+                break;
+            } else {
+                break;
+            }
+        }
+        return new Stmt.If(t.line, conditions.toArray(new Expr[0]), branches.toArray(new Stmt[0]), orElse);
+    }
+
+    private Stmt whileStatement() {
+        Token t = next(); // while
+        Expr condition = expression();
+        scope.loopDepth++;
+        Stmt body = suite();
+        scope.loopDepth--;
+        return new Stmt.While(t.line, condition, body);
+    }
+
+    private Stmt forStatement() {
+        Token t = next(); // for
+        Token variable = name();
+        expect("in");
+        Token range = next();
+        if (!range.is("range") || !peek().is("(")) {
+            throw new ScriptError("SyntaxError", range.line, "only 'for ... in range(...)' loops are supported");
+        }
+        Expr[] args = arguments();
+        if (args.length < 1 || args.length > 3) {
+            throw new ScriptError("TypeError", range.line, "range() takes 1 to 3 arguments");
+        }
+        Expr start = args.length > 1 ? args[0] : new Expr.Const(0);
+        Expr stop = args.length > 1 ? args[1] : args[0];
+        Expr step = args.length > 2 ? args[2] : new Expr.Const(1);
+
+        boolean global = isGlobalTarget(variable.text);
+        int slot = (global ? globalScope : scope).slot(variable.text);
+        scope.loopDepth++;
+        Stmt body = suite();
+        scope.loopDepth--;
+        return new Stmt.ForRange(t.line, global, slot, start, stop, step, body);
+    }
+
+    private void defStatement() {
+        Token t = next(); // def
+        if (scope != globalScope) {
+            throw new ScriptError("SyntaxError", t.line, "def is only supported at the top level");
+        }
+        String name = name().text;
+        if (functions.containsKey(name)) {
+            throw new ScriptError("SyntaxError", t.line, "function '" + name + "' is already defined");
+        }
+        List<String> params = new ArrayList<>();
+        expect("(");
+        if (!accept(")")) {
+            do {
+                String param = name().text;
+                if (params.contains(param)) {
+                    throw new ScriptError("SyntaxError", t.line, "duplicate argument '" + param + "'");
+                }
+                params.add(param);
+            } while (accept(","));
+            expect(")");
+        }
+
+        Function function = new Function(name, params.size());
+        functions.put(name, function); // Registered first so the body can call itself
+        scope = new Scope(function);
+        scopes.add(scope);
+        for (String param : params) {
+            scope.slot(param);
+        }
+        function.body = suite();
+        function.localCount = scope.slots.size();
+        scope = globalScope;
+    }
+
+    // Block after ':' - either the rest of the line or an indented block on the next lines
+    private Stmt suite() {
+        Token colon = expect(":");
+        List<Stmt> body = new ArrayList<>();
+        if (accept(Kind.NEWLINE)) {
+            if (!accept(Kind.INDENT)) {
+                throw new ScriptError("IndentationError", peek().line, "expected an indented block");
+            }
+            while (!accept(Kind.DEDENT)) {
+                statement(body);
+            }
+        } else {
+            simpleStatements(body);
+        }
+        return new Stmt.Block(colon.line, body.toArray(new Stmt[0]));
+    }
+
+    // ========== Expressions ==========
+
+    private Expr expression() {
+        Expr left = andExpression();
+        while (accept("or")) {
+            left = new Expr.Logic(false, left, andExpression());
+        }
+        return left;
+    }
+
+    private Expr andExpression() {
+        Expr left = notExpression();
+        while (accept("and")) {
+            left = new Expr.Logic(true, left, notExpression());
+        }
+        return left;
+    }
+
+    private Expr notExpression() {
+        if (accept("not")) {
+            return new Expr.Not(notExpression());
+        }
+        return comparison();
+    }
+
+    private Expr comparison() {
+        Expr first = arithmetic();
+        List<Integer> ops = new ArrayList<>();
+        List<Expr> operands = new ArrayList<>(Collections.singletonList(first));
+        while (true) {
+            int op = comparisonOperator(peek());
+            if (op < 0) break;
+            next();
+            ops.add(op);
+            operands.add(arithmetic());
+        }
+        if (ops.isEmpty()) {
+            return first;
+        }
+        int[] opArray = new int[ops.size()];
+        for (int i = 0; i < opArray.length; i++) {
+            opArray[i] = ops.get(i);
+        }
+        return new Expr.Compare(opArray, operands.toArray(new Expr[0]));
+    }
+
+    private static int comparisonOperator(Token t) {
+        if (t.kind != Kind.OP) return -1;
+        switch (t.text) {
+            case "==": return Expr.EQ;
+            case "!=": return Expr.NE;
+            case "<": return Expr.LT;
+            case "<=": return Expr.LE;
+            case ">": return Expr.GT;
+            case ">=": return Expr.GE;
+            default: return -1;
+        }
+    }
+
+    private Expr arithmetic() {
+        Expr left = term();
+        while (true) {
+            Token t = peek();
+            if (t.kind == Kind.OP && (t.text.equals("+") || t.text.equals("-"))) {
+                next();
+                left = new Expr.Binary(t.text.equals("+") ? Expr.ADD : Expr.SUB, left, term(), t.line);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expr term() {
+        Expr left = factor();
+        while (true) {
+            Token t = peek();
+            int op;
+            if (t.is("*")) op = Expr.MUL;
+            else if (t.is("//") || t.is("/")) op = Expr.DIV; // Only integers, so / rounds down too
+            else if (t.is("%")) op = Expr.MOD;
+            else return left;
+            next();
+            left = new Expr.Binary(op, left, factor(), t.line);
+        }
+    }
+
+    private Expr factor() {
+        int line = peek().line;
+        if (accept("-")) {
+            return new Expr.Negate(factor(), line);
+        }
+        if (accept("+")) {
+            return factor();
+        }
+        return power();
+    }
+
+    private Expr power() {
+        Expr base = atom();
+        Token t = peek();
+        if (accept("**")) {
+            return new Expr.Binary(Expr.POW, base, factor(), t.line); // Right associative, binds tighter than unary minus on the left
+        }
+        return base;
+    }
+
+    private Expr atom() {
+        Token t = next();
+        switch (t.kind) {
+            case NUMBER:
+                try {
+                    return new Expr.Const(Integer.parseInt(t.text));
+                } catch (NumberFormatException e) {
+                    throw new ScriptError("OverflowError", t.line, "number too large: " + t.text);
+                }
+            case STRING:
+                throw new ScriptError("TypeError", t.line, "strings can only be used in print()");
+            case OP:
+                if (t.text.equals("(")) {
+                    Expr inner = expression();
+                    expect(")");
+                    return inner;
+                }
+                throw new ScriptError("SyntaxError", t.line, "invalid syntax at " + t);
+            case NAME:
+                if (t.text.equals("True")) return new Expr.Const(1);
+                if (t.text.equals("False")) return new Expr.Const(0);
+                if (KEYWORDS.contains(t.text)) {
+                    throw new ScriptError("SyntaxError", t.line, "invalid syntax at " + t);
+                }
+                return nameOrCall(t);
+            default:
+                throw new ScriptError("SyntaxError", t.line, "unexpected " + t);
+        }
+    }
+
+    // Variable, dotted game name (player.moveup) or call
+    private Expr nameOrCall(Token t) {
+        String name = t.text;
+        boolean dotted = false;
+        while (accept(".")) {
+            name += "." + name().text;
+            dotted = true;
+        }
+
+        if (peek().is("(")) {
+            Expr[] args = arguments();
+            if (!dotted && defNames.contains(name)) {
+                Expr.Call call = new Expr.Call(name, args, t.line);
+                calls.add(call);
+                return call;
+            }
+            if (name.equals("abs") && args.length == 1 || (name.equals("min") || name.equals("max")) && args.length >= 1) {
+                return new Expr.Builtin(name, args, t.line);
+            }
+            if (host.hasFunction(name, args.length)) {
+                return new Expr.HostCall(name, args, host.isAction(name), t.line);
+            }
+            throw new ScriptError("NameError", t.line, "name '" + name + "' is not defined");
+        }
+
+        if (dotted) {
+            if (!host.hasVariable(name)) {
+                throw new ScriptError("NameError", t.line, "name '" + name + "' is not defined");
+            }
+            Expr.Name variable = new Expr.Name(name, t.line);
+            variable.host = true;
+            return variable;
+        }
+        return read(t);
+    }
+
+    // Read of a plain variable - its scope is decided once the whole program has been compiled
+    private Expr.Name read(Token t) {
+        Expr.Name variable = new Expr.Name(t.text, t.line);
+        scope.reads.add(variable);
+        return variable;
+    }
+
+    private Expr[] arguments() {
+        expect("(");
+        List<Expr> args = new ArrayList<>();
+        if (!accept(")")) {
+            do {
+                args.add(expression());
+            } while (accept(","));
+            expect(")");
+        }
+        return args.toArray(new Expr[0]);
+    }
+
+    // ========== Names ==========
+
+    // Assignments inside a def make a local variable unless the name was declared global
+    private boolean isGlobalTarget(String name) {
+        return scope == globalScope || scope.globalNames.contains(name);
+    }
+
+    // Python rules: a name assigned anywhere in a def is local to it, otherwise it is a top level
+    // variable, otherwise a game variable
+    private void resolveNames() {
+        for (Scope s : scopes) {
+            for (Expr.Name variable : s.reads) {
+                if (s != globalScope && !s.globalNames.contains(variable.name) && s.slots.containsKey(variable.name)) {
+                    variable.slot = s.slots.get(variable.name);
+                } else if (globalScope.slots.containsKey(variable.name)) {
+                    variable.global = true;
+                    variable.slot = globalScope.slots.get(variable.name);
+                } else if (host.hasVariable(variable.name)) {
+                    variable.host = true;
+                } else {
+                    throw new ScriptError("NameError", variable.line, "name '" + variable.name + "' is not defined");
+                }
+            }
+        }
+    }
+
+    // ========== Tokens ==========
+
+    private Token peek() {
+        return tokens.get(pos);
+    }
+
+    private Token next() {
+        Token t = tokens.get(pos);
+        if (t.kind != Kind.END) pos++;
+        return t;
+    }
+
+    private boolean accept(String op) {
+        if (peek().is(op)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean accept(Kind kind) {
+        if (peek().kind == kind) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private Token expect(String op) {
+        Token t = peek();
+        if (!accept(op)) {
+            throw new ScriptError("SyntaxError", t.line, "expected '" + op + "' but found " + t);
+        }
+        return t;
+    }
+
+    private Token expect(Kind kind) {
+        Token t = peek();
+        if (!accept(kind)) {
+            throw new ScriptError("SyntaxError", t.line, "expected " + kind.name().toLowerCase() + " but found " + t);
+        }
+        return t;
+    }
+
+    private Token name() {
+        Token t = next();
+        if (t.kind != Kind.NAME || KEYWORDS.contains(t.text)) {
+            throw new ScriptError("SyntaxError", t.line, "expected a name but found " + t);
+        }
+        return t;
+    }
+}
@@ -0,0 +1,16 @@
+package CodeQuest.Script;
+
+// Error in a script, reported like Python does: "SyntaxError (line 3): expected ':'"
+// Thrown while compiling (syntax, indentation, unknown names) and while running (division by zero, ...)
+public class ScriptError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public final String kind; // Python style error name (SyntaxError, NameError, ...)
+    public final int line; // Source line the error belongs to (1-based)
+
+    public ScriptError(String kind, int line, String message) {
+        super(kind + " (line " + line + "): " + message);
+        this.kind = kind;
+        this.line = line;
+    }
+}
@@ -0,0 +1,54 @@
+package CodeQuest.Script;
+
+/**
+ * ScriptHost - the game as seen by a script
+ * Names are looked up once while compiling; the running program only calls
+ * getVariable, call and print. Dotted names such as "player.moveup" are passed as written.
+ */
+public interface ScriptHost {
+
+    /**
+     * @param name Variable name used in the script
+     * @return true if the game provides a read-only variable with this name (x, y, health, ...)
+     */
+    boolean hasVariable(String name);
+
+    /**
+     * Reads a game variable while the script runs
+     * @param name A name accepted by hasVariable
+     * @return Current value
+     */
+    int getVariable(String name);
+
+    /**
+     * @param name Function name used in the script
+     * @param argCount Number of arguments in the call
+     * @return true if the game provides this function with this many arguments
+     */
+    boolean hasFunction(String name, int argCount);
+
+    /**
+     * @param name A name accepted by hasFunction
+     * @return true if calling it queues something in the game (counted against ScriptLimits.maxActions),
+     *         false for functions that only read the game
+     */
+    default boolean isAction(String name) {
+        return true;
+    }
+
+    /**
+     * Calls a game function (player actions and sensors)
+     * May block until the game has carried the action out; that time does not count as running time
+     * @param name A name accepted by hasFunction
+     * @param args Evaluated arguments
+     * @return Result of the function, 0 for actions
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    int call(String name, int[] args);
+
+    /**
+     * Output of print()
+     * @param text Arguments joined by spaces
+     */
+    void print(String text);
+}
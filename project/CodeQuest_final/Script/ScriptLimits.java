@@ -0,0 +1,16 @@
+package CodeQuest.Script;
+
+// Resources one program run may use before it is stopped
+public final class ScriptLimits {
+    public static final ScriptLimits DEFAULT = new ScriptLimits(1_000_000, 2_000, 500);
+
+    public final long maxSteps; // Statements and loop tests
+    public final long timeoutMillis; // Wall clock time
+    public final int maxActions; // Calls that queue something in the game (moves, prints)
+
+    public ScriptLimits(long maxSteps, long timeoutMillis, int maxActions) {
+        this.maxSteps = maxSteps;
+        this.timeoutMillis = timeoutMillis;
+        this.maxActions = maxActions;
+    }
+}
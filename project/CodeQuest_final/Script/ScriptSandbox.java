@@ -0,0 +1,63 @@
+package CodeQuest.Script;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Compiles and runs programs one at a time on a background worker thread, so a slow or endless
+// program can never block the EDT or the game loop. Each run is limited by ScriptLimits and can be
+// cancelled; cancelled runs stop at their next step and the host can drop actions they posted.
+public class ScriptSandbox {
+    private static final long WORKER_STACK_SIZE = 16 * 1024 * 1024; // Room for deep expressions and recursion
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(null, task, "Script worker", WORKER_STACK_SIZE);
+        thread.setDaemon(true); // Never keeps the game from exiting
+        return thread;
+    });
+    private final AtomicLong lastSubmitted = new AtomicLong(); // Id of the newest run
+    private volatile long cancelledUpTo = 0; // Runs with an id up to this are cancelled
+    private volatile long currentRun = 0; // Id of the run on the worker (written by the worker)
+    private final ScriptLimits limits;
+
+    public ScriptSandbox(ScriptLimits limits) {
+        this.limits = limits;
+    }
+
+    // Queue a program (any thread). Errors, except cancellation, are passed to onError on the worker thread
+    // onStart runs on the worker once the program has compiled, just before it starts
+    public void submit(String source, ScriptHost host, Runnable onStart, Consumer<ScriptError> onError) {
+        long id = lastSubmitted.incrementAndGet();
+        worker.execute(() -> {
+            if (isCancelled(id)) return; // Cancelled while waiting for an earlier run
+            currentRun = id;
+            BooleanSupplier cancelled = () -> isCancelled(id);
+            try {
+                Program program = Program.compile(source, host);
+                if (isCancelled(id)) return;
+                onStart.run();
+                program.run(host, limits, cancelled);
+            } catch (ScriptError e) {
+                if (!isCancelled(id)) onError.accept(e);
+            } catch (RuntimeException | StackOverflowError e) {
+                onError.accept(new ScriptError("InternalError", 1, e.toString())); // Keep the worker alive
+            }
+        });
+    }
+
+    // Cancel the running program and every program still waiting (any thread)
+    public void cancelAll() {
+        cancelledUpTo = lastSubmitted.get();
+    }
+
+    // Id of the run executing on the worker - call from host methods to tag what the run posts
+    public long currentRun() {
+        return currentRun;
+    }
+
+    public boolean isCancelled(long run) {
+        return run <= cancelledUpTo;
+    }
+}
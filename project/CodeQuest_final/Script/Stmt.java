@@ -0,0 +1,210 @@
+package CodeQuest.Script;
+
+// Compiled statement - exec returns how control leaves it, so loops and calls
+// handle break, continue and return without exceptions
+abstract class Stmt {
+    static final int NORMAL = 0, BREAK = 1, CONTINUE = 2, RETURN = 3;
+
+    final int line; // Source line, for step counting and errors
+
+    Stmt(int line) {
+        this.line = line;
+    }
+
+    abstract int exec(Frame f);
+
+    // Statements of one suite, run in order
+    static final class Block extends Stmt {
+        final Stmt[] body;
+
+        Block(int line, Stmt[] body) {
+            super(line);
+            this.body = body;
+        }
+
+        @Override
+        int exec(Frame f) {
+            for (Stmt stmt : body) {
+                f.run.step(stmt.line);
+                int signal = stmt.exec(f);
+                if (signal != NORMAL) return signal;
+            }
+            return NORMAL;
+        }
+    }
+
+    // Expression used as a statement (function calls)
+    static final class Eval extends Stmt {
+        final Expr expr;
+
+        Eval(int line, Expr expr) {
+            super(line);
+            this.expr = expr;
+        }
+
+        @Override
+        int exec(Frame f) {
+            expr.eval(f);
+            return NORMAL;
+        }
+    }
+
+    // name = value (for name op= value the compiler makes value "name op value")
+    static final class Assign extends Stmt {
+        final boolean global; // Top level variable
+        final int slot;
+        final Expr value; // Already combined with the old value for augmented assignment
+
+        Assign(int line, boolean global, int slot, Expr value) {
+            super(line);
+            this.global = global;
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        int exec(Frame f) {
+            int result = value.eval(f);
+            Frame frame = global ? f.run.globals : f;
+            frame.slots[slot] = result;
+            frame.defined[slot] = true;
+            return NORMAL;
+        }
+    }
+
+    // if / elif / else
+    static final class If extends Stmt {
+        final Expr[] conditions;
+        final Stmt[] branches;
+        final Stmt orElse; // null without else
+
+        If(int line, Expr[] conditions, Stmt[] branches, Stmt orElse) {
+            super(line);
+            this.conditions = conditions;
+            this.branches = branches;
+            this.orElse = orElse;
+        }
+
+        @Override
+        int exec(Frame f) {
+            for (int i = 0; i < conditions.length; i++) {
+                if (conditions[i].eval(f) != 0) {
+                    return branches[i].exec(f);
+                }
+            }
+            return orElse != null ? orElse.exec(f) : NORMAL;
+        }
+    }
+
+    static final class While extends Stmt {
+        final Expr condition;
+        final Stmt body;
+
+        While(int line, Expr condition, Stmt body) {
+            super(line);
+            this.condition = condition;
+            this.body = body;
+        }
+
+        @Override
+        int exec(Frame f) {
+            while (true) {
+                f.run.step(line);
+                if (condition.eval(f) == 0) return NORMAL;
+                int signal = body.exec(f);
+                if (signal == BREAK) return NORMAL;
+                if (signal == RETURN) return RETURN;
+            }
+        }
+    }
+
+    // for name in range(start, stop, step) - bounds are evaluated once, like Python
+    static final class ForRange extends Stmt {
+        final boolean global;
+        final int slot;
+        final Expr start, stop, step;
+        final Stmt body;
+
+        ForRange(int line, boolean global, int slot, Expr start, Expr stop, Expr step, Stmt body) {
+            super(line);
+            this.global = global;
+            this.slot = slot;
+            this.start = start;
+            this.stop = stop;
+            this.step = step;
+            this.body = body;
+        }
+
+        @Override
+        int exec(Frame f) {
+            int from = start.eval(f);
+            int to = stop.eval(f);
+            int by = step.eval(f);
+            if (by == 0) {
+                throw new ScriptError("ValueError", line, "range() step must not be zero");
+            }
+            Frame frame = global ? f.run.globals : f;
+            for (long i = from; by > 0 ? i < to : i > to; i += by) {
+                f.run.step(line);
+                frame.slots[slot] = (int) i;
+                frame.defined[slot] = true;
+                int signal = body.exec(f);
+                if (signal == BREAK) return NORMAL;
+                if (signal == RETURN) return RETURN;
+            }
+            return NORMAL;
+        }
+    }
+
+    // print(...) - strings are printed as written, expressions as numbers
+    static final class Print extends Stmt {
+        final Object[] parts; // String or Expr
+
+        Print(int line, Object[] parts) {
+            super(line);
+            this.parts = parts;
+        }
+
+        @Override
+        int exec(Frame f) {
+            f.run.action(line); // Output is queued for the message bar
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) text.append(' ');
+                text.append(parts[i] instanceof Expr ? String.valueOf(((Expr) parts[i]).eval(f)) : parts[i]);
+            }
+            f.run.host.print(text.toString());
+            return NORMAL;
+        }
+    }
+
+    static final class Return extends Stmt {
+        final Expr value; // null returns 0
+
+        Return(int line, Expr value) {
+            super(line);
+            this.value = value;
+        }
+
+        @Override
+        int exec(Frame f) {
+            f.returnValue = value != null ? value.eval(f) : 0;
+            return RETURN;
+        }
+    }
+
+    // break, continue and pass
+    static final class Jump extends Stmt {
+        final int signal;
+
+        Jump(int line, int signal) {
+            super(line);
+            this.signal = signal;
+        }
+
+        @Override
+        int exec(Frame f) {
+            return signal;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package CodeQuest.Tiles;
+
+import java.util.Arrays;
+
+// Bakes border terrain (the beach around the island) into the tile layer when a level is loaded
+// Objects files place "terrain" types (see ObjectTypes.txt) on tiles; the autotiler looks at the four
+// neighbours of each marked tile, builds a bitmask of the sides facing the sea and picks the edge or
+// corner tile for it. The sea is outside the map; a marked tile with no sea beside it faces away from
+// the land instead. The result replaces the tile IDs in mapTile, and a per-tile collision mask takes
+// the place of one colliding object per border tile.
+public final class Autotiler {
+    // Beach tile IDs in TileManager.tiles, in the order of BEACH_SPRITES
+    public static final int BEACH_TILE = 10;
+    public static final String[] BEACH_SPRITES = {
+            "beach_up", "beach_down", "beach_left", "beach_right",
+            "beach_top_left", "beach_top_right", "beach_bottom_left", "beach_bottom_right"
+    };
+
+    // Side bits of the mask
+    private static final int UP = 1, RIGHT = 2, DOWN = 4, LEFT = 8;
+
+    // Sea-side mask -> index into BEACH_SPRITES (sides that make no edge or corner use beach_down)
+    private static final int[] SPRITE_FOR_MASK = new int[16];
+    static {
+        Arrays.fill(SPRITE_FOR_MASK, 1);
+        SPRITE_FOR_MASK[UP] = 0;
+        SPRITE_FOR_MASK[DOWN] = 1;
+        SPRITE_FOR_MASK[LEFT] = 2;
+        SPRITE_FOR_MASK[RIGHT] = 3;
+        SPRITE_FOR_MASK[UP | LEFT] = 4;
+        SPRITE_FOR_MASK[UP | RIGHT] = 5;
+        SPRITE_FOR_MASK[DOWN | LEFT] = 6;
+        SPRITE_FOR_MASK[DOWN | RIGHT] = 7;
+    }
+
+    private final int cols, rows; // Map size in tiles
+    private final boolean[] marked; // Terrain placed on the tile, index col + row * cols
+    private final boolean[] solid; // Marked terrain that blocks movement
+
+    public Autotiler(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.marked = new boolean[cols * rows];
+        this.solid = new boolean[cols * rows];
+    }
+
+    // Place terrain on a tile (tiles outside the map are reported and skipped)
+    public void mark(ObjectArchetype type, int col, int row) {
+        if (!inside(col, row)) {
+            System.out.println("Terrain " + type.name + " outside the map at " + col + " " + row);
+            return;
+        }
+        marked[col + row * cols] = true;
+        solid[col + row * cols] |= type.collision;
+    }
+
+    // Write the edge and corner tile IDs of all marked tiles into mapTile[col][row]
+    // Returns the collision mask of the map (index col + row * cols)
+    public boolean[] bake(int[][] mapTile) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (marked[col + row * cols]) {
+                    mapTile[col][row] = BEACH_TILE + SPRITE_FOR_MASK[seaMask(col, row)];
+                }
+            }
+        }
+        return solid.clone();
+    }
+
+    // Sides of a marked tile that face the sea
+    private int seaMask(int col, int row) {
+        int sea = side(col, row - 1, UP) | side(col + 1, row, RIGHT) | side(col, row + 1, DOWN) | side(col - 1, row, LEFT);
+        if (sea != 0) return sea;
+        // Not next to the map edge: face away from the land
+        return (isLand(col, row + 1) ? UP : 0) | (isLand(col - 1, row) ? RIGHT : 0)
+                | (isLand(col, row - 1) ? DOWN : 0) | (isLand(col + 1, row) ? LEFT : 0);
+    }
+
+    // The bit if the neighbour is outside the map
+    private int side(int col, int row, int bit) {
+        return inside(col, row) ? 0 : bit;
+    }
+
+    private boolean isLand(int col, int row) {
+        return inside(col, row) && !marked[col + row * cols];
+    }
+
+    private boolean inside(int col, int row) {
+        return col >= 0 && row >= 0 && col < cols && row < rows;
+    }
+
+    // True if the area (world pixels) overlaps a tile set in the collision mask; outside the map is open
+    public static boolean blocks(boolean[] mask, int cols, int rows, int tileSize, int x, int y, int width, int height) {
+        int firstCol = Math.max(0, Math.floorDiv(x, tileSize));
+        int lastCol = Math.min(cols - 1, Math.floorDiv(x + width - 1, tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(y, tileSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(y + height - 1, tileSize));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                if (mask[col + row * cols]) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,147 +1,77 @@
 package CodeQuest.Tiles;
 
-import java.awt.Rectangle;
-import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * GameObjectFactory - Factory class for creating map objects
  * Uses Factory Design Pattern to centralize object creation and configuration
- * Handles walls, trees, bushes, keys, chests, and decorative objects
+ * Object types (hitbox, sprites, animation, collision, interaction) are read once from
+ * res/Maps/ObjectTypes.txt into shared ObjectArchetypes; each created object only refers to its type
  */
 public class GameObjectFactory {
+    public static final String TYPES_FILE = "/CodeQuest/res/Maps/ObjectTypes.txt";
+
+    // Archetypes by name, read on first use (the holder class makes this safe from the level loader thread)
+    private static final class Types {
+        static final Map<String, ObjectArchetype> BY_NAME = readTypes(TYPES_FILE);
+    }
 
     /**
      * Creates a map object based on its type name
-     * Configures collision areas, sprites, and properties for each object type
      *
      * @param name The type of object to create (tree, bush, key, chest1-4, etc.)
-     * @param x X position in world coordinates (not used in current implementation)
-     * @param y Y position in world coordinates (not used in current implementation)
-     * @return Fully configured MapObject ready to be placed in the world
+     * @param col Column of the object's tile
+     * @param row Row of the object's tile
+     * @param tileSize Size of a tile in world pixels
+     * @return MapObject placed in the world, sharing its type's settings
      */
-    public static MapObject createObject(String name, int x, int y) {
-        MapObject obj = new MapObject();
-        obj.name = name;
-
-        switch (name) {
-            case "wall":
-                // Standard wall - full tile collision
-                obj.collision = true;
-                obj.solidArea = new Rectangle(0, 0, 64, 64);
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("wall");
-                break;
-
-            case "wall2":
-                // Top corner wall - extended height (96px) with vertical offset
-                obj.collision = true;
-                obj.solidArea = new Rectangle(0, -32, 64, 96);
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("wall_top_corner");
-                break;
-
-            case "wall3":
-                // Bottom corner wall - extended height (96px) with vertical offset
-                obj.collision = true;
-                obj.solidArea = new Rectangle(0, -32, 64, 96);
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("wall_bottom_corner");
-                break;
-
-            case "wall4":
-                // Side wall - thin vertical collision area (10px wide)
-                obj.collision = true;
-                obj.solidArea = new Rectangle(28, 0, 10, 64);
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("wall_side");
-                break;
-
-            case "tree":
-                // Tree - random variant selection, collision on trunk area only
-                obj.collision = true;
-                obj.solidArea = new Rectangle(50, 133, 32, 50); // Bottom center of tree sprite
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                String treeKey = (Math.random() < 0.5) ? "tree" : "tree1"; // 50% chance each variant
-                obj.image = AssetHandler.getInstance().getImage(treeKey);
-                break;
+    public static MapObject createObject(String name, int col, int row, int tileSize) {
+        ObjectArchetype type = getArchetype(name);
+        return new MapObject(type, type.imageAt(col, row), col * tileSize, row * tileSize);
+    }
 
-            case "bush":
-                // Bush - decorative, no collision, random variant
-                obj.collision = false;
-                obj.solidArea = new Rectangle(8, 11, 47, 42); // Matches bush sprite size
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                String bushKey = (Math.random() < 0.5) ? "bush1" : "bush2"; // 50% chance each variant
-                obj.image = AssetHandler.getInstance().getImage(bushKey);
-                break;
+    /**
+     * Gets the shared settings of an object type
+     * Names missing from the types file get a plain type (no collision, no sprite), reported once
+     */
+    public static ObjectArchetype getArchetype(String name) {
+        return Types.BY_NAME.computeIfAbsent(name, missing -> {
+            System.out.println("Unknown object type: " + missing);
+            return ObjectArchetype.unknown(missing);
+        });
+    }
 
-            case "key":
-                // Animated key - 4 frame animation, no collision (collected on overlap)
-                obj.collision = false;
-                obj.sprites = new BufferedImage[4];
-                for (int i = 0; i < 4; i++) {
-                    obj.sprites[i] = AssetHandler.getInstance().getImage("key" + (i + 1));
+    // Read the types file: one type per line, '#' starts a comment line, bad lines are reported and skipped
+    private static Map<String, ObjectArchetype> readTypes(String filePath) {
+        Map<String, ObjectArchetype> types = new ConcurrentHashMap<>();
+        try {
+            InputStream is = GameObjectFactory.class.getResourceAsStream(filePath);
+            if (is == null) {
+                System.out.println("Object types file not found: " + filePath);
+                return types;
+            }
+            BufferedReader br = new BufferedReader(new InputStreamReader(is));
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) continue;
+                try {
+                    ObjectArchetype type = ObjectArchetype.parse(line);
+                    types.put(type.name, type);
+                } catch (IllegalArgumentException e) {
+                    System.out.println(filePath + " line " + lineNumber + ": " + e.getMessage());
                 }
-                obj.solidArea = new Rectangle(16, 16, 32, 32); // Center of tile
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                break;
-
-            case "chest1":
-                // Chest variant 1 - blocks movement, has open/closed states
-                obj.collision = true;
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("chest1");
-                obj.imageOpen = AssetHandler.getInstance().getImage("chest1_open");
-                break;
-
-            case "chest2":
-                // Chest variant 2
-                obj.collision = true;
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("chest2");
-                obj.imageOpen = AssetHandler.getInstance().getImage("chest2_open");
-                break;
-
-            case "chest3":
-                // Chest variant 3
-                obj.collision = true;
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("chest3");
-                obj.imageOpen = AssetHandler.getInstance().getImage("chest3_open");
-                break;
-
-            case "chest4":
-                // Chest variant 4
-                obj.collision = true;
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("chest4");
-                obj.imageOpen = AssetHandler.getInstance().getImage("chest4_open");
-                break;
-
-            case "skeleton":
-                // Decorative skeleton - blocks movement
-                obj.collision = true;
-                obj.solidArea = new Rectangle(0, 0, 64, 64);
-                obj.solidAreaDefaultX = obj.solidArea.x;
-                obj.solidAreaDefaultY = obj.solidArea.y;
-                obj.image = AssetHandler.getInstance().getImage("skeleton");
-                break;
-
-            default:
-                // Default object with no special properties (no collision, no sprite)
-                break;
+            }
+            br.close();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-
-        return obj;
+        return types;
     }
 }
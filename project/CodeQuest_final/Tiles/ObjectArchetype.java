@@ -0,0 +1,139 @@
+package CodeQuest.Tiles;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+// Immutable settings of one kind of map object, shared by every object of that kind (Flyweight pattern)
+// Read once from res/Maps/ObjectTypes.txt by GameObjectFactory. A MapObject only adds its position,
+// its sprite variant and whether it was collected or opened.
+public final class ObjectArchetype {
+    // What touching the object does
+    public enum Interaction { NONE, KEY, CHEST }
+
+    public final String name; // Type name used in the Objects files
+    public final Interaction interaction;
+    public final boolean collision; // Blocks movement (chests only until opened)
+    public final int solidX, solidY, solidWidth, solidHeight; // Hitbox relative to the object's position
+    public final int drawX, drawY, drawWidth, drawHeight; // Sprite box relative to the object's position
+    public final BufferedImage imageOpen; // Opened chest sprite, null if none
+    public final long frameDelay; // Nanoseconds per animation frame
+    public final int hover; // Height of the floating motion in pixels, 0 for none
+    public final Color fallback; // Drawn when the sprite is missing, null for nothing
+    public final boolean terrain; // Baked into the tile layer by the Autotiler, never an object
+    private final BufferedImage[] variants; // Sprites to pick from per object, empty for none
+    private final BufferedImage[] frames; // Animation frames, null if not animated
+
+    private ObjectArchetype(String name, Map<String, String> settings) {
+        this.name = name;
+        String interact = settings.getOrDefault("interact", "none");
+        switch (interact) {
+            case "none": interaction = Interaction.NONE; break;
+            case "key": interaction = Interaction.KEY; break;
+            case "chest": interaction = Interaction.CHEST; break;
+            default: throw new IllegalArgumentException("unknown interact=" + interact);
+        }
+        collision = settings.containsKey("solid");
+
+        int[] hitbox = box(settings.getOrDefault("hitbox", "0,0,48,48"));
+        solidX = hitbox[0];
+        solidY = hitbox[1];
+        solidWidth = hitbox[2];
+        solidHeight = hitbox[3];
+        int[] draw = box(settings.getOrDefault("draw", "0,0,64,64"));
+        drawX = draw[0];
+        drawY = draw[1];
+        drawWidth = draw[2];
+        drawHeight = draw[3];
+
+        AssetHandler assets = AssetHandler.getInstance();
+        String sprite = settings.get("sprite");
+        String[] variantKeys = sprite == null ? new String[0] : sprite.split("\\|");
+        variants = new BufferedImage[variantKeys.length];
+        for (int i = 0; i < variantKeys.length; i++) {
+            variants[i] = assets.getImage(variantKeys[i]);
+        }
+        imageOpen = settings.containsKey("open") ? assets.getImage(settings.get("open")) : null;
+        if (settings.containsKey("frames")) {
+            String[] frameKeys = settings.get("frames").split(",");
+            frames = new BufferedImage[frameKeys.length];
+            for (int i = 0; i < frameKeys.length; i++) {
+                frames[i] = assets.getImage(frameKeys[i]);
+            }
+        } else {
+            frames = null;
+        }
+        frameDelay = Long.parseLong(settings.getOrDefault("delay", "100")) * 1_000_000L;
+        hover = Integer.parseInt(settings.getOrDefault("hover", "0"));
+        terrain = settings.containsKey("terrain");
+
+        String colour = settings.getOrDefault("fallback", "red");
+        switch (colour) {
+            case "red": fallback = Color.RED; break;
+            case "blue": fallback = Color.BLUE; break;
+            case "green": fallback = Color.GREEN; break;
+            case "none": fallback = null; break;
+            default: throw new IllegalArgumentException("unknown fallback=" + colour);
+        }
+    }
+
+    // One line of the types file: "name setting key=value ..."
+    static ObjectArchetype parse(String line) {
+        String[] parts = line.trim().split("\\s+");
+        Map<String, String> settings = new HashMap<>();
+        for (int i = 1; i < parts.length; i++) {
+            int eq = parts[i].indexOf('=');
+            if (eq < 0) {
+                settings.put(parts[i], "");
+            } else {
+                settings.put(parts[i].substring(0, eq), parts[i].substring(eq + 1));
+            }
+        }
+        return new ObjectArchetype(parts[0], settings);
+    }
+
+    // Type for a name missing from the types file: no collision, no sprite, drawn as a red square
+    static ObjectArchetype unknown(String name) {
+        return new ObjectArchetype(name, new HashMap<>());
+    }
+
+    // "x,y,w,h"
+    private static int[] box(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("expected x,y,w,h but found " + value);
+        }
+        int[] box = new int[4];
+        for (int i = 0; i < 4; i++) {
+            box[i] = Integer.parseInt(parts[i]);
+        }
+        return box;
+    }
+
+    // Never animates or changes - stored as a Scenery record instead of a MapObject
+    public boolean isStatic() {
+        return interaction == Interaction.NONE && frames == null && hover == 0;
+    }
+
+    public boolean isAnimated() {
+        return frames != null;
+    }
+
+    // Animation frame at a time in nanoseconds - every object of the type shows the same frame
+    public int frameAt(long now) {
+        return (int) ((now / frameDelay) % frames.length);
+    }
+
+    public BufferedImage frame(int index) {
+        return frames[index];
+    }
+
+    // Sprite variant for an object on a tile, chosen by position
+    // (the same tile always gets the same variant, whichever thread loads the level)
+    public BufferedImage imageAt(int col, int row) {
+        if (variants.length == 0) return null;
+        int hash = (col * 73856093) ^ (row * 19349663);
+        return variants[Math.floorMod(hash, variants.length)];
+    }
+}
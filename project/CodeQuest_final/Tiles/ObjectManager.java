@@ -2,7 +2,6 @@ package CodeQuest.Tiles;
 
 import CodeQuest.Main.GamePanel;
 
-import java.awt.Rectangle;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -11,21 +10,27 @@ import java.util.ArrayList;
 import java.util.List;
 
 // Manages all map objects like trees, bushes, chests, and keys
+// Keys, chests and anything animated are MapObjects; static scenery is stored compactly in a Scenery,
+// and border terrain (beach) is baked into the tile layer by the Autotiler
 public class ObjectManager {
     GamePanel gamePanel; // Reference to game panel
-    public List<MapObject> objects = new ArrayList<>(); // List of all objects in world
+    public List<MapObject> objects = new ArrayList<>(); // Interactive objects in the world (replaced when a level starts)
+    public Scenery scenery; // Static objects in the world (replaced when a level starts)
 
     // Constructor initializes object manager
     public ObjectManager(GamePanel gamePanel) {
-        this.gamePanel = gamePanel;
-        loadObjects("/CodeQuest/res/Maps/Objects.txt"); // Load objects from file
+        this.gamePanel = gamePanel; // Objects are added by LevelManager
+        this.scenery = new Scenery.Builder(gamePanel.gameTileSize, gamePanel.maxWorldCol, gamePanel.maxWorldRow).build();
     }
 
-    // Loads objects from text file
-    public void loadObjects(String filePath) {
+    // Reads an objects file (also used by the batch grader, no GamePanel needed)
+    // Returns the interactive objects in file order; static ones are added to the scenery builder
+    // and terrain is marked for the autotiler
+    public static List<MapObject> readObjects(String filePath, int tileSize, Scenery.Builder scenery, Autotiler terrain) {
+        List<MapObject> objects = new ArrayList<>();
         try {
-            InputStream is = getClass().getResourceAsStream(filePath);
-            if (is == null) return; // no objects file
+            InputStream is = ObjectManager.class.getResourceAsStream(filePath);
+            if (is == null) return objects; // no objects file
             BufferedReader br = new BufferedReader(new InputStreamReader(is));
             String line;
             // Read each object line
@@ -36,59 +41,31 @@ public class ObjectManager {
                     if (name.startsWith("npc")) {continue;} // Skip NPCs, handled by NPCManager
                     int x = Integer.parseInt(parts[1]); // X position in tiles
                     int y = Integer.parseInt(parts[2]); // Y position in tiles
-                    MapObject obj = createObject(name, 0, 0); // Create object based on type (dummy coords)
-                    obj.worldX = x * gamePanel.gameTileSize; // Convert to pixels
-                    obj.worldY = y * gamePanel.gameTileSize;
-                    // Special handling for beach border tiles
-                    if (name.equals("beach")) {
-                        String tileKey;
-                        // Determine beach tile variant based on position
-                        if (x == 0 && y == 0) tileKey = "beach_top_left";
-                        else if (x == gamePanel.maxWorldCol - 1 && y == 0) tileKey = "beach_top_right";
-                        else if (x == 0 && y == gamePanel.maxWorldRow - 1) tileKey = "beach_bottom_left";
-                        else if (x == gamePanel.maxWorldCol - 1 && y == gamePanel.maxWorldRow - 1) tileKey = "beach_bottom_right";
-                        else if (y == 0) tileKey = "beach_up";
-                        else if (y == gamePanel.maxWorldRow - 1) tileKey = "beach_down";
-                        else if (x == 0) tileKey = "beach_left";
-                        else if (x == gamePanel.maxWorldCol - 1) tileKey = "beach_right";
-                        else tileKey = "beach_down";  // Fallback
-                        obj.image = AssetHandler.getInstance().getImage(tileKey);
-                        obj.collision = true; // Beach blocks movement
-                         // Set collision area for beach tiles
-                         switch (tileKey) {
-                             case "beach_up" :
-                             case "beach_down" :
-                             case "beach_left" :
-                             case "beach_right" :
-                             case "beach_top_left" :
-                             case "beach_top_right" :
-                             case "beach_bottom_left" :
-                             case "beach_bottom_right" :
-                                 obj.solidArea = new Rectangle(0, 0, 64, 64); // Full tile collision
-                                 break;
-                         }
-                        obj.solidAreaDefaultX = obj.solidArea.x; // Store default position
-                        obj.solidAreaDefaultY = obj.solidArea.y;
+                    ObjectArchetype type = GameObjectFactory.getArchetype(name);
+                    if (type.terrain) {
+                        terrain.mark(type, x, y); // Becomes an edge or corner tile
+                    } else if (type.isStatic()) {
+                        scenery.add(type, type.imageAt(x, y), x, y); // Compact record
+                    } else {
+                        // Create object based on type (settings shared through its archetype)
+                        MapObject obj = GameObjectFactory.createObject(name, x, y, tileSize);
+                        objects.add(obj); // Add to objects list
                     }
-                    objects.add(obj); // Add to objects list
                 }
             }
             br.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
-    }
-
-    // Creates object using the factory
-    private MapObject createObject(String name, int x, int y) {
-        return GameObjectFactory.createObject(name, x, y);
+        return objects;
     }
 
     // Updates animated objects like keys
     public void update() {
+        long now = System.nanoTime();
         for (MapObject obj : objects) {
-            if (obj.sprites != null) { // Has animation frames
-                obj.updateAnimation(); // Update animation
+            if (obj.type.isAnimated() || obj.type.hover != 0) { // Has animation frames or floats
+                obj.updateAnimation(now); // Update animation
             }
         }
     }
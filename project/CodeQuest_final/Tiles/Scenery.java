@@ -0,0 +1,177 @@
+package CodeQuest.Tiles;
+
+import CodeQuest.Main.CollisionChecker;
+import CodeQuest.Main.RenderSnapshot;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Static map objects (beach, walls, trees, bushes ...) kept as compact records instead of MapObjects
+// A record is a type index, a sprite index and a tile in primitive arrays; hitbox, draw box and the
+// rest come from the shared ObjectArchetype. Records are sorted by tile, so collision checks and
+// drawing only visit the tiles around the area they need. Nothing changes after a level is loaded,
+// so a Scenery can be read from any thread (the batch grader shares one between all runs).
+public final class Scenery {
+    public final int count; // Number of records
+    private final int tileSize;
+    private final int cols, rows; // Map size in tiles
+    private final ObjectArchetype[] types; // Types used in this level
+    private final BufferedImage[] images; // Sprites used in this level
+    private final short[] type; // Index into types, per record
+    private final short[] image; // Index into images, -1 for no sprite
+    private final short[] col, row; // Tile of the record
+    private final int[] cellStart; // First record of each tile (col + row * cols), cellStart[cols * rows] = count
+    private final int solidLeft, solidTop; // Smallest hitbox offset of the solid types
+    private final int solidRight, solidBottom; // Largest hitbox end of the solid types
+
+    private Scenery(Builder b) {
+        tileSize = b.tileSize;
+        cols = b.cols;
+        rows = b.rows;
+        count = b.count;
+        types = b.types.toArray(new ObjectArchetype[0]);
+        images = b.images.toArray(new BufferedImage[0]);
+
+        // Counting sort of the records by tile
+        cellStart = new int[cols * rows + 1];
+        for (int i = 0; i < count; i++) {
+            cellStart[b.col[i] + b.row[i] * cols + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] next = Arrays.copyOf(cellStart, cols * rows);
+        type = new short[count];
+        image = new short[count];
+        col = new short[count];
+        row = new short[count];
+        for (int i = 0; i < count; i++) {
+            int slot = next[b.col[i] + b.row[i] * cols]++;
+            type[slot] = b.type[i];
+            image[slot] = b.image[i];
+            col[slot] = b.col[i];
+            row[slot] = b.row[i];
+        }
+
+        int left = 0, top = 0, right = 0, bottom = 0;
+        for (ObjectArchetype t : types) {
+            if (!t.collision) continue;
+            left = Math.min(left, t.solidX);
+            top = Math.min(top, t.solidY);
+            right = Math.max(right, t.solidX + t.solidWidth);
+            bottom = Math.max(bottom, t.solidY + t.solidHeight);
+        }
+        solidLeft = left;
+        solidTop = top;
+        solidRight = right;
+        solidBottom = bottom;
+    }
+
+    // True if the hitbox of a solid record overlaps the area (world pixels)
+    public boolean blocks(int x, int y, int width, int height) {
+        int firstCol = Math.max(0, Math.floorDiv(x - solidRight, tileSize));
+        int lastCol = Math.min(cols - 1, Math.floorDiv(x + width - solidLeft, tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(y - solidBottom, tileSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(y + height - solidTop, tileSize));
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                int cell = c + r * cols;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    ObjectArchetype t = types[type[i]];
+                    if (t.collision && CollisionChecker.overlaps(x, y, width, height,
+                            c * tileSize + t.solidX, r * tileSize + t.solidY, t.solidWidth, t.solidHeight)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // True if a solid record sits on the tile
+    public boolean hasSolid(int col, int row) {
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return false;
+        int cell = col + row * cols;
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            if (types[type[i]].collision) return true;
+        }
+        return false;
+    }
+
+    // Add the records placed strictly inside a world area to the render snapshot, ids from firstId
+    public void collectVisible(RenderSnapshot snapshot, int left, int top, int right, int bottom, int firstId) {
+        int firstCol = Math.max(0, Math.floorDiv(left, tileSize));
+        int lastCol = Math.min(cols - 1, Math.floorDiv(right, tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(top, tileSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(bottom, tileSize));
+        for (int r = firstRow; r <= lastRow; r++) {
+            int worldY = r * tileSize;
+            if (worldY <= top || worldY >= bottom) continue;
+            int start = cellStart[firstCol + r * cols];
+            int end = cellStart[lastCol + r * cols + 1]; // Tiles of a row are consecutive
+            for (int i = start; i < end; i++) {
+                int worldX = col[i] * tileSize;
+                if (worldX <= left || worldX >= right) continue;
+                ObjectArchetype t = types[type[i]];
+                BufferedImage sprite = image[i] >= 0 ? images[image[i]] : null;
+                if (sprite == null && t.fallback == null) continue;
+                snapshot.add(firstId + i, worldX + t.drawX, worldY + t.drawY, t.drawWidth, t.drawHeight,
+                        worldY + t.solidY + t.solidHeight, sprite, t.fallback);
+            }
+        }
+    }
+
+    // Collects records while a level's objects file is read, then sorts them into a Scenery
+    public static final class Builder {
+        private final int tileSize;
+        private final int cols, rows;
+        private final List<ObjectArchetype> types = new ArrayList<>();
+        private final List<BufferedImage> images = new ArrayList<>();
+        private final Map<ObjectArchetype, Integer> typeIndex = new IdentityHashMap<>();
+        private final Map<BufferedImage, Integer> imageIndex = new IdentityHashMap<>();
+        private short[] type = new short[64];
+        private short[] image = new short[64];
+        private short[] col = new short[64];
+        private short[] row = new short[64];
+        private int count = 0;
+
+        public Builder(int tileSize, int cols, int rows) {
+            this.tileSize = tileSize;
+            this.cols = cols;
+            this.rows = rows;
+        }
+
+        // Add a static object on a tile (tiles outside the map are reported and skipped)
+        public void add(ObjectArchetype objectType, BufferedImage sprite, int tileCol, int tileRow) {
+            if (tileCol < 0 || tileRow < 0 || tileCol >= cols || tileRow >= rows) {
+                System.out.println("Object " + objectType.name + " outside the map at " + tileCol + " " + tileRow);
+                return;
+            }
+            if (count == type.length) {
+                type = Arrays.copyOf(type, count * 2);
+                image = Arrays.copyOf(image, count * 2);
+                col = Arrays.copyOf(col, count * 2);
+                row = Arrays.copyOf(row, count * 2);
+            }
+            type[count] = (short) (int) typeIndex.computeIfAbsent(objectType, t -> {
+                types.add(t);
+                return types.size() - 1;
+            });
+            image[count] = sprite == null ? -1 : (short) (int) imageIndex.computeIfAbsent(sprite, s -> {
+                images.add(s);
+                return images.size() - 1;
+            });
+            col[count] = (short) tileCol;
+            row[count] = (short) tileRow;
+            count++;
+        }
+
+        public Scenery build() {
+            return new Scenery(this);
+        }
+    }
+}
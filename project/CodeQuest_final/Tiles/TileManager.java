@@ -12,36 +12,44 @@ import java.io.InputStreamReader;
 public class TileManager {
     public Tile[] tiles; // Array of available tile types
     GamePanel gamePanel; // Reference to game panel
-    public int[][] mapTile; // 2D array storing tile IDs for each position
+    public volatile int[][] mapTile; // 2D array storing tile IDs for each position (replaced whole when a level starts)
+    public boolean[] collisionMask; // Tiles that block movement, index col + row * maxWorldCol (replaced with mapTile, game thread)
 
     // Constructor initializes tile manager
     public TileManager(GamePanel gamePanel) {
         this.gamePanel = gamePanel;
-        tiles = new Tile[10]; // grass variants
+        tiles = new Tile[Autotiler.BEACH_TILE + Autotiler.BEACH_SPRITES.length]; // grass variants, then beach edges
         getTileImage(); // Load tile images
-        mapTile = new int[gamePanel.maxWorldCol][gamePanel.maxWorldRow]; // Initialize map array
-        loadMap("/CodeQuest/res/Maps/WorldMap2.txt"); // Load map from file
+        mapTile = new int[gamePanel.maxWorldCol][gamePanel.maxWorldRow]; // Initialize map array (filled by LevelManager)
+        collisionMask = new boolean[gamePanel.maxWorldCol * gamePanel.maxWorldRow];
     }
 
     // Loads map data from text file
     public void loadMap(String name) {
+        readMap(name, mapTile);
+    }
+
+    // Reads tile IDs from a map file into mapTile[col][row] (also used by the batch grader, no GamePanel needed)
+    public static void readMap(String name, int[][] mapTile) {
+        int maxWorldCol = mapTile.length;
+        int maxWorldRow = mapTile[0].length;
         try {
-            InputStream input = getClass().getResourceAsStream(name);
+            InputStream input = TileManager.class.getResourceAsStream(name);
             BufferedReader reader = new BufferedReader(new InputStreamReader(input));
             int col =0;
             int row =0;
             // Read map row by row
-            while (col < gamePanel.maxWorldCol && row < gamePanel.maxWorldRow) {
+            while (col < maxWorldCol && row < maxWorldRow) {
                 String line = reader.readLine();
                 // Parse each column in the row
-                while (col < gamePanel.maxWorldCol) {
+                while (col < maxWorldCol) {
                     String[] Nums = line.split(" "); // Split by spaces
                     int num =  Integer.parseInt(Nums[col]); // Convert to tile ID
                     mapTile[col][row] = num; // Store in map array
                     col++;
                 }
                 // Move to next row
-                if (col == gamePanel.maxWorldCol) {
+                if (col == maxWorldCol) {
                     row++;
                     col = 0;
                 }
@@ -73,10 +81,28 @@ public class TileManager {
 
         tiles[4] = new Tile();
         tiles[4].image = AssetHandler.getInstance().getImage("path");
+
+        // Beach edges and corners, placed by the Autotiler
+        for (int i = 0; i < Autotiler.BEACH_SPRITES.length; i++) {
+            Tile beach = new Tile();
+            beach.image = AssetHandler.getInstance().getImage(Autotiler.BEACH_SPRITES[i]);
+            beach.collision = true; // Beach blocks movement
+            tiles[Autotiler.BEACH_TILE + i] = beach;
+        }
+    }
+
+    // True if the area (world pixels) overlaps a tile that blocks movement (game thread)
+    public boolean blocks(int x, int y, int width, int height) {
+        return Autotiler.blocks(collisionMask, gamePanel.maxWorldCol, gamePanel.maxWorldRow, gamePanel.gameTileSize,
+                x, y, width, height);
     }
 
-    // Renders visible tiles to the screen
-    public void draw(Graphics2D g2) {
+    // Renders visible tiles at native resolution (one pixel per gamePanel.scale world units)
+    // with the camera centred on (cameraX, cameraY)
+    public void draw(Graphics2D g2, int cameraX, int cameraY) {
+        int scale = gamePanel.scale;
+        int size = gamePanel.gameTiles; // Native tile size
+        int[][] mapTile = this.mapTile; // The same level for the whole frame, even if a new one is swapped in
         int worldCol = 0;
         int worldRow = 0;
 
@@ -86,25 +112,25 @@ public class TileManager {
             // Calculate world coordinates
             int worldX = gamePanel.gameTileSize * worldCol;
             int worldY = gamePanel.gameTileSize * worldRow;
-            // Convert to screen coordinates based on player position
-            int screenX = worldX - gamePanel.player.worldX + gamePanel.player.screenX;
-            int screenY = worldY - gamePanel.player.worldY + gamePanel.player.screenY;
+            // Convert to native buffer coordinates based on player position
+            int screenX = Math.floorDiv(worldX - cameraX + gamePanel.player.screenX, scale);
+            int screenY = Math.floorDiv(worldY - cameraY + gamePanel.player.screenY, scale);
 
             // Only draw tiles visible on screen (optimization)
-            if (worldX + gamePanel.gameTileSize > gamePanel.player.worldX - gamePanel.player.screenX &&
-                    worldY + gamePanel.gameTileSize > gamePanel.player.worldY - gamePanel.player.screenY &&
-                    worldX - gamePanel.gameTileSize < gamePanel.player.worldX + gamePanel.player.screenX &&
-                    worldY - 4*gamePanel.gameTileSize < gamePanel.player.worldY + gamePanel.player.screenY) {
+            if (worldX + gamePanel.gameTileSize > cameraX - gamePanel.player.screenX &&
+                    worldY + gamePanel.gameTileSize > cameraY - gamePanel.player.screenY &&
+                    worldX - gamePanel.gameTileSize < cameraX + gamePanel.player.screenX &&
+                    worldY - 4*gamePanel.gameTileSize < cameraY + gamePanel.player.screenY) {
                  int tileNum = mapTile[worldCol][worldRow]; // Get tile ID
-                 if ( 0 <= tileNum && tileNum <= 4 ) { // Validate tile ID
+                 if ( 0 <= tileNum && tileNum < tiles.length && tiles[tileNum] != null ) { // Validate tile ID
                      BufferedImage img = tiles[tileNum].image;
                      if (img != null) {
                          // Draw tile image
-                         g2.drawImage(img, screenX, screenY, gamePanel.gameTileSize, gamePanel.gameTileSize, null);
+                         g2.drawImage(img, screenX, screenY, size, size, null);
                      } else {
                          // Fallback if image missing
                          g2.setColor(Color.GREEN);
-                         g2.fillRect(screenX, screenY, gamePanel.gameTileSize, gamePanel.gameTileSize);
+                         g2.fillRect(screenX, screenY, size, size);
                      }
                  }
             }